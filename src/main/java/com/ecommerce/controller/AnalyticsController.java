@@ -0,0 +1,57 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.SalesReport;
+import com.ecommerce.service.SalesAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * REST controller for sales reporting. Reports are served from the
+ * pre-aggregated rollups in {@link SalesAnalytics}; no order scan on this
+ * path.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Revenue, units and orders between two dates (inclusive, default the
+     * last 30 days), grouped by day, category or product. Day rows can be
+     * restricted to one category or product.
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReport> sales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesAnalytics.GroupBy groupBy,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "100") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesAnalytics.report(start, end, groupBy, categoryId, productId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recompute the rollups from the order tables, e.g. after editing
+     * orders directly in the database.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        return ResponseEntity.ok(Collections.singletonMap("orders", salesAnalytics.rebuild()));
+    }
+}
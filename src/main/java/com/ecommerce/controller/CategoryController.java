@@ -1,5 +1,6 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CategorySummary;
 import com.ecommerce.entity.Category;
 import com.ecommerce.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,25 +22,25 @@ public class CategoryController {
     private CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategorySummary>> getAllCategories() {
+        return ResponseEntity.ok(categoryService.getAllCategorySummaries());
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<Category>> getActiveCategories() {
-        return ResponseEntity.ok(categoryService.getActiveCategories());
+    public ResponseEntity<List<CategorySummary>> getActiveCategories() {
+        return ResponseEntity.ok(categoryService.getActiveCategorySummaries());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return categoryService.getCategoryById(id)
+    public ResponseEntity<CategorySummary> getCategoryById(@PathVariable Long id) {
+        return categoryService.getCategorySummaryById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<Category> getCategoryByName(@PathVariable String name) {
-        return categoryService.getCategoryByName(name)
+    public ResponseEntity<CategorySummary> getCategoryByName(@PathVariable String name) {
+        return categoryService.getCategorySummaryByName(name)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -71,18 +72,18 @@ public class CategoryController {
     }
 
     @GetMapping("/root")
-    public ResponseEntity<List<Category>> getRootCategories() {
-        return ResponseEntity.ok(categoryService.getRootCategories());
+    public ResponseEntity<List<CategorySummary>> getRootCategories() {
+        return ResponseEntity.ok(categoryService.getRootCategorySummaries());
     }
 
     @GetMapping("/{parentId}/subcategories")
-    public ResponseEntity<List<Category>> getSubCategories(@PathVariable Long parentId) {
-        return ResponseEntity.ok(categoryService.getSubCategories(parentId));
+    public ResponseEntity<List<CategorySummary>> getSubCategories(@PathVariable Long parentId) {
+        return ResponseEntity.ok(categoryService.getSubCategorySummaries(parentId));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Category>> searchCategories(@RequestParam String keyword) {
-        return ResponseEntity.ok(categoryService.searchCategories(keyword));
+    public ResponseEntity<List<CategorySummary>> searchCategories(@RequestParam String keyword) {
+        return ResponseEntity.ok(categoryService.searchCategorySummaries(keyword));
     }
 
     @GetMapping("/check-name/{name}")
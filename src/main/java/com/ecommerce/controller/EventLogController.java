@@ -0,0 +1,42 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.LogEvent;
+import com.ecommerce.service.EventLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for tailing the order and stock event log. Consumers
+ * remember the last {@code sequence} they processed and ask for the events
+ * after it; with {@code waitMs} the request long-polls until there is one.
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventLogController {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final long MAX_WAIT_MILLIS = 30000;
+
+    @Autowired
+    private EventLog eventLog;
+
+    @GetMapping
+    public ResponseEntity<List<LogEvent>> read(@RequestParam(defaultValue = "0") long after,
+                                               @RequestParam(defaultValue = "100") int limit,
+                                               @RequestParam(defaultValue = "0") long waitMs) {
+        if (limit < 1 || limit > MAX_LIMIT || waitMs < 0 || waitMs > MAX_WAIT_MILLIS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(eventLog.read(after, limit, waitMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
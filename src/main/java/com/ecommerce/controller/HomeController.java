@@ -1,14 +1,19 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductSummary;
 import com.ecommerce.entity.Product;
 import com.ecommerce.entity.Review;
 import com.ecommerce.entity.Category;
 import com.ecommerce.entity.User;
+import com.ecommerce.service.ProductDetailService;
+import com.ecommerce.service.ProductDetailService.ProductDetail;
 import com.ecommerce.service.ProductService;
 import com.ecommerce.service.ReviewService;
 import com.ecommerce.service.CategoryService;
 import com.ecommerce.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +30,9 @@ import java.util.Optional;
 @Controller
 public class HomeController {
 
+    private static final String PRODUCTS_SORT_KEY = "name";
+    private static final String PRODUCTS_SORT_DIR = "asc";
+
     @Autowired
     private ProductService productService;
 
@@ -37,6 +45,12 @@ public class HomeController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProductDetailService productDetailService;
+
+    @Value("${ecommerce.storefront.products-page-size:24}")
+    private int productsPageSize;
+
     /**
      * Display the home page with hero section, featured products, and categories.
      */
@@ -65,16 +79,24 @@ public class HomeController {
     }
 
     /**
-     * Display all products page.
+     * Display all products page. Only the first page is rendered on the
+     * server; the page script fetches the following pages from
+     * {@code /api/products/cursor} as the visitor scrolls, and the
+     * "Load more" link ({@code ?cursor=}) covers browsers without it.
      */
     @GetMapping("/products")
-    public String products(Model model) {
+    public String products(@RequestParam(required = false) String cursor, Model model) {
         try {
-            List<Product> products = productService.getAllProductsAsList();
-            model.addAttribute("products", products);
+            CursorPage<ProductSummary> page = productService.getProductsAfter(
+                    PRODUCTS_SORT_KEY, PRODUCTS_SORT_DIR, cursor, productsPageSize);
+            model.addAttribute("products", page.getContent());
+            model.addAttribute("nextCursor", page.getNextCursor());
         } catch (Exception e) {
             model.addAttribute("products", Collections.emptyList());
         }
+        model.addAttribute("pageSize", productsPageSize);
+        model.addAttribute("sortBy", PRODUCTS_SORT_KEY);
+        model.addAttribute("sortDir", PRODUCTS_SORT_DIR);
         return "products";
     }
 
@@ -102,38 +124,19 @@ public class HomeController {
 
     /**
      * Display details for a single product. Includes product details,
-     * associated reviews and the average rating.
+     * associated reviews and the average rating. The product and its
+     * reviews are loaded concurrently (see {@link ProductDetailService}).
      */
     @GetMapping("/product/{id}")
     public String productDetail(@PathVariable Long id, Model model) {
-        try {
-            // Fetch product
-            Optional<Product> productOpt = productService.getProductById(id);
-            if (productOpt.isPresent()) {
-                model.addAttribute("product", productOpt.get());
-            } else {
-                return "redirect:/";
-            }
-        } catch (Exception e) {
+        ProductDetail detail = productDetailService.load(id);
+        if (!detail.getProduct().isPresent()) {
             return "redirect:/";
         }
-        
-        try {
-            // Fetch reviews
-            List<Review> reviews = reviewService.getReviewsByProductId(id);
-            model.addAttribute("reviews", reviews);
-        } catch (Exception e) {
-            model.addAttribute("reviews", Collections.emptyList());
-        }
-        
-        try {
-            // Fetch average rating
-            Double averageRating = reviewService.getAverageRating(id);
-            model.addAttribute("averageRating", averageRating);
-        } catch (Exception e) {
-            model.addAttribute("averageRating", 0.0);
-        }
-        
+        model.addAttribute("product", detail.getProduct().get());
+        model.addAttribute("reviews", detail.getReviews());
+        model.addAttribute("averageRating", detail.getAverageRating());
+
         // Add a blank review object for the form
         model.addAttribute("newReview", new Review());
         return "product-detail";
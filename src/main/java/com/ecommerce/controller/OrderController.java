@@ -1,11 +1,30 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.ArchiveResult;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ExportProgress;
+import com.ecommerce.dto.OrderBatchResult;
+import com.ecommerce.dto.OrderView;
 import com.ecommerce.entity.Order;
+import com.ecommerce.service.IdempotencyKeyReuseException;
+import com.ecommerce.service.IdempotencyStore;
+import com.ecommerce.service.InsufficientStockException;
+import com.ecommerce.service.OrderArchiveService;
+import com.ecommerce.service.OrderExportService;
 import com.ecommerce.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,20 +41,77 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Get a list of all orders.
      */
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<OrderView>> getAllOrders() {
+        return ResponseEntity.ok(orderService.getAllOrderViews());
+    }
+
+    /**
+     * Stream orders with their lines placed between {@code from} and
+     * {@code to} (inclusive, either optional), optionally limited to some
+     * statuses, as CSV or NDJSON. Memory use stays flat however many orders
+     * match. With {@code gzip=true} the output is compressed on the fly and
+     * served as a {@code .gz} file. The {@code X-Export-Id} header names the
+     * export in {@code /api/orders/export/progress}.
+     */
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "CSV") OrderExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", required = false) List<Order.OrderStatus> statuses,
+            @RequestParam(defaultValue = "true") boolean includeArchived,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        OrderExportService.Filter filter;
+        try {
+            filter = new OrderExportService.Filter(from, to, statuses, includeArchived);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String exportId = orderExportService.newExportId();
+        String fileName = "orders-" + exportId + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> orderExportService.export(exportId, filter, format, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header("X-Export-Id", exportId)
+                .body(body);
+    }
+
+    /**
+     * Rows written, throughput and state of running and recently finished
+     * order exports.
+     */
+    @GetMapping("/orders/export/progress")
+    public ResponseEntity<List<ExportProgress>> getExportProgress() {
+        return ResponseEntity.ok(orderExportService.progress());
+    }
+
+    @GetMapping("/orders/export/progress/{exportId}")
+    public ResponseEntity<ExportProgress> getExportProgress(@PathVariable String exportId) {
+        return orderExportService.progress(exportId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
      * Get a single order by its ID.
      */
     @GetMapping("/orders/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        Optional<Order> order = orderService.getOrderById(id);
+    public ResponseEntity<OrderView> getOrderById(@PathVariable Long id) {
+        Optional<OrderView> order = orderService.getOrderViewById(id);
         return order.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -43,33 +119,99 @@ public class OrderController {
      * Get all orders placed by a particular user.
      */
     @GetMapping("/users/{userId}/orders")
-    public ResponseEntity<List<Order>> getOrdersByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(orderService.getOrdersByUserId(userId));
+    public ResponseEntity<List<OrderView>> getOrdersByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getOrderViewsByUserId(userId));
+    }
+
+    /**
+     * A user's order history with items, newest first, one page at a time.
+     * Follow {@code nextCursor} for older orders.
+     */
+    @GetMapping("/users/{userId}/orders/history")
+    public ResponseEntity<CursorPage<OrderView>> getOrderHistory(@PathVariable Long userId,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
      * Create a new order. The incoming request body should include the
      * order details and associated items. The order total will be
-     * calculated server-side.
+     * calculated server-side. Responds 409 with the short lines if any
+     * product does not have enough stock. With an {@code Idempotency-Key}
+     * header, retries of the same request by the same user return the order
+     * the first one created instead of placing another; reusing the key
+     * with a different body responds 422.
      */
     @PostMapping("/orders")
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
+    public ResponseEntity<?> createOrder(@RequestBody JsonNode body,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            Order created = orderService.createOrder(order);
-            return ResponseEntity.ok(created);
+            Order order = objectMapper.treeToValue(body, Order.class);
+            Long orderId = idempotencyKey != null
+                    ? orderService.createOrder(order, idempotencyKey, IdempotencyStore.hash(body.toString()))
+                    : orderService.createOrder(order).getId();
+            return ResponseEntity.ok(orderService.getOrderViewById(orderId).orElse(null));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getShortages());
+        } catch (IdempotencyKeyReuseException e) {
+            return ResponseEntity.unprocessableEntity().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Place many orders in one request, e.g. a marketplace feed. Stock is
+     * taken per product across the whole batch and the response has one
+     * result per order, in submission order. {@code mode} overrides
+     * {@code ecommerce.orders.batch-mode}; an all-or-nothing batch that was
+     * not placed responds 409.
+     */
+    @PostMapping("/orders/batch")
+    public ResponseEntity<OrderBatchResult> createOrders(@RequestBody List<Order> orders,
+                                                         @RequestParam(value = "mode", required = false) OrderBatchResult.Mode mode) {
+        try {
+            OrderBatchResult result = orderService.createOrders(orders, mode);
+            if (result.getMode() == OrderBatchResult.Mode.ALL_OR_NOTHING && result.getRejected() > 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Move closed orders placed more than {@code olderThanDays} days ago to
+     * the archive tables now, instead of waiting for the nightly run.
+     */
+    @PostMapping("/orders/archive")
+    public ResponseEntity<ArchiveResult> archiveOrders(@RequestParam(defaultValue = "365") int olderThanDays) {
+        try {
+            return ResponseEntity.ok(orderArchiveService.archiveOlderThan(olderThanDays));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     /**
      * Update the status of an existing order. Clients should pass the
      * desired status via a request parameter.
      */
     @PutMapping("/orders/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id,
-                                                  @RequestParam("status") Order.OrderStatus status) {
-        Optional<Order> updated = orderService.updateOrderStatus(id, status);
+    public ResponseEntity<OrderView> updateOrderStatus(@PathVariable Long id,
+                                                      @RequestParam("status") Order.OrderStatus status) {
+        Optional<OrderView> updated = orderService.updateOrderStatus(id, status)
+                .flatMap(order -> orderService.getOrderViewById(order.getId()));
         return updated.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
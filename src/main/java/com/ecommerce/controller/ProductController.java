@@ -1,16 +1,31 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductFacetResponse;
+import com.ecommerce.dto.ProductImportResult;
+import com.ecommerce.dto.ProductSummary;
 import com.ecommerce.entity.Product;
+import com.ecommerce.entity.Product.ProductStatus;
+import com.ecommerce.service.ProductExportService;
+import com.ecommerce.service.ProductFacetIndex;
+import com.ecommerce.service.ProductImportException;
+import com.ecommerce.service.ProductImportService;
 import com.ecommerce.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,13 +41,31 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProductsAsList());
+    public ResponseEntity<List<ProductSummary>> getAllProducts() {
+        return ResponseEntity.ok(productService.getAllProductSummaries());
+    }
+
+    /**
+     * Stream the whole catalog as newline-delimited JSON. Intended for
+     * export jobs; memory use stays flat regardless of catalog size.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = out -> productExportService.exportNdjson(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/paged")
-    public ResponseEntity<Page<Product>> getAllProductsPaged(
+    public ResponseEntity<Page<ProductSummary>> getAllProductsPaged(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -44,9 +77,26 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageable));
     }
 
+    /**
+     * Cursor-based listing for deep paging and crawlers. Returns an opaque
+     * {@code nextCursor} instead of page numbers and never runs a count query.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProductSummary>> getProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        try {
+            return ResponseEntity.ok(productService.getProductsAfter(sortBy, sortDir, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
+    public ResponseEntity<ProductSummary> getProductById(@PathVariable Long id) {
+        return productService.getProductSummaryById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -57,6 +107,44 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
 
+    /**
+     * Bulk import from a JSON array. Input that cannot be read past some
+     * row gives a 400 with the partial result; a failure outside the input
+     * gives a 500 with the partial result. Either way
+     * {@code stoppedAtRow} says where the import stopped, and the rows
+     * before it are committed.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResult> importProductsJson(InputStream body) {
+        try {
+            return importResponse(productImportService.importJson(body));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ProductImportException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getResult());
+        }
+    }
+
+    /**
+     * Bulk import from CSV; responds like the JSON import.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResult> importProductsCsv(InputStream body) {
+        try {
+            return importResponse(productImportService.importCsv(body));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ProductImportException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getResult());
+        }
+    }
+
+    private static ResponseEntity<ProductImportResult> importResponse(ProductImportResult result) {
+        return result.getStoppedAtRow() == null
+                ? ResponseEntity.ok(result)
+                : ResponseEntity.badRequest().body(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
         try {
@@ -74,7 +162,7 @@ public class ProductController {
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<Product>> getProductsByCategory(
+    public ResponseEntity<Page<ProductSummary>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -84,12 +172,12 @@ public class ProductController {
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<List<Product>> getFeaturedProducts() {
-        return ResponseEntity.ok(productService.getFeaturedProductsAsList());
+    public ResponseEntity<List<ProductSummary>> getFeaturedProducts() {
+        return ResponseEntity.ok(productService.getFeaturedProductSummaries());
     }
 
     @GetMapping("/featured/paged")
-    public ResponseEntity<Page<Product>> getFeaturedProductsPaged(
+    public ResponseEntity<Page<ProductSummary>> getFeaturedProductsPaged(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
@@ -98,7 +186,7 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<Page<ProductSummary>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -107,8 +195,38 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(keyword, pageable));
     }
 
+    /**
+     * Faceted browsing: any combination of category, price band, minimum
+     * rating, status and stock filters, with facet counts in the response.
+     * Repeat a parameter to select several values of the same facet.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResponse<ProductSummary>> browseFacets(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) List<ProductStatus> status,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        ProductFacetIndex.FacetFilter filter = new ProductFacetIndex.FacetFilter();
+        filter.setCategoryIds(categoryId != null ? categoryId : Collections.<Long>emptyList());
+        filter.setPriceBands(priceBand != null ? priceBand : Collections.<String>emptyList());
+        filter.setMinRating(minRating);
+        filter.setStatuses(status != null ? status : Collections.<ProductStatus>emptyList());
+        filter.setInStock(inStock);
+        try {
+            return ResponseEntity.ok(productService.browseFacets(filter, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
     @GetMapping("/price-range")
-    public ResponseEntity<Page<Product>> getProductsByPriceRange(
+    public ResponseEntity<Page<ProductSummary>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
             @RequestParam BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
@@ -119,7 +237,7 @@ public class ProductController {
     }
 
     @GetMapping("/rating/{minRating}")
-    public ResponseEntity<Page<Product>> getProductsByMinRating(
+    public ResponseEntity<Page<ProductSummary>> getProductsByMinRating(
             @PathVariable Double minRating,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -129,7 +247,7 @@ public class ProductController {
     }
 
     @GetMapping("/in-stock")
-    public ResponseEntity<Page<Product>> getInStockProducts(
+    public ResponseEntity<Page<ProductSummary>> getInStockProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
@@ -138,12 +256,28 @@ public class ProductController {
     }
 
     @GetMapping("/top-rated")
-    public ResponseEntity<List<Product>> getTopRatedProducts() {
-        return ResponseEntity.ok(productService.getTopRatedProducts());
+    public ResponseEntity<List<ProductSummary>> getTopRatedProducts(
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getTopRatedProducts(null, limit));
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<List<Product>> getLatestProducts() {
-        return ResponseEntity.ok(productService.getLatestProducts());
+    public ResponseEntity<List<ProductSummary>> getLatestProducts(
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getLatestProducts(null, limit));
+    }
+
+    @GetMapping("/category/{categoryId}/top-rated")
+    public ResponseEntity<List<ProductSummary>> getTopRatedProductsInCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getTopRatedProducts(categoryId, limit));
+    }
+
+    @GetMapping("/category/{categoryId}/latest")
+    public ResponseEntity<List<ProductSummary>> getLatestProductsInCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getLatestProducts(categoryId, limit));
     }
 }
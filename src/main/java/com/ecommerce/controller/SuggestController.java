@@ -0,0 +1,31 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.Suggestion;
+import com.ecommerce.service.SuggestionIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for search-as-you-type suggestions. Served entirely from
+ * the in-memory {@link SuggestionIndex}; no database access on this path.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class SuggestController {
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    /**
+     * Get product and category name suggestions for a typed prefix.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam("q") String query,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(query, limit));
+    }
+}
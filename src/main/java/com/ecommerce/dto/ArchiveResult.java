@@ -0,0 +1,65 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of an order archival run.
+ */
+public class ArchiveResult {
+
+    private LocalDateTime cutoff;
+    private int orders;
+    private int items;
+    private int chunks;
+    private long elapsedMillis;
+
+    public ArchiveResult() {
+    }
+
+    public ArchiveResult(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Closed orders placed before this were eligible.
+     */
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public void setItems(int items) {
+        this.items = items;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
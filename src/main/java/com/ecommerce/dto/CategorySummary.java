@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+/**
+ * Read-only projection of a category for the REST API. Carries the parent's
+ * ID instead of the LAZY parent, sub-category and product associations.
+ */
+public interface CategorySummary {
+
+    /**
+     * JPQL select list matching this projection; append a WHERE / ORDER BY clause.
+     */
+    String SELECT = "SELECT c.id AS id, c.name AS name, c.description AS description, c.imageUrl AS imageUrl, "
+            + "pc.id AS parentCategoryId, c.isActive AS active "
+            + "FROM Category c LEFT JOIN c.parentCategory pc";
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getImageUrl();
+
+    Long getParentCategoryId();
+
+    Boolean getActive();
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) listing. Carries no total count; clients
+ * follow {@code nextCursor} until {@code hasNext} is false.
+ */
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> content, int size, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
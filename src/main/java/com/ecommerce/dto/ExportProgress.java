@@ -0,0 +1,104 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of a running or recently finished streaming export.
+ */
+public class ExportProgress {
+
+    /**
+     * Where an export is.
+     */
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        /** The query failed or the client went away before the end. */
+        FAILED
+    }
+
+    private String id;
+    private String format;
+    private boolean gzip;
+    private State state;
+    private LocalDateTime startedAt;
+    private long rows;
+    private long orders;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Order lines written so far.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Order;
+
+import java.time.Instant;
+
+/**
+ * One record of the order and stock event log. {@code sequence} is
+ * assigned on append and increases by one per record; tail the log by
+ * asking for events after the last sequence seen.
+ * <p>
+ * {@code amount} is the order total in cents for {@code ORDER_PLACED} and
+ * the new stock level for {@code STOCK_SET}; {@code delta} is the stock
+ * change in units for {@code STOCK_DECREMENTED}.
+ */
+public class LogEvent {
+
+    public enum Type {
+        ORDER_PLACED,
+        ORDER_STATUS_CHANGED,
+        ORDER_DELETED,
+        STOCK_SET,
+        STOCK_DECREMENTED
+    }
+
+    private long sequence;
+    private Instant timestamp;
+    private Type type;
+    private long entityId;
+    private long amount;
+    private int delta;
+    private Order.OrderStatus fromStatus;
+    private Order.OrderStatus toStatus;
+
+    public LogEvent() {
+    }
+
+    public LogEvent(Type type, long entityId, long amount, int delta,
+                    Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        this.type = type;
+        this.entityId = entityId;
+        this.amount = amount;
+        this.delta = delta;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.timestamp = Instant.now();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Order ID for order events, product ID for stock events.
+     */
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(long entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public Order.OrderStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public void setFromStatus(Order.OrderStatus fromStatus) {
+        this.fromStatus = fromStatus;
+    }
+
+    public Order.OrderStatus getToStatus() {
+        return toStatus;
+    }
+
+    public void setToStatus(Order.OrderStatus toStatus) {
+        this.toStatus = toStatus;
+    }
+}
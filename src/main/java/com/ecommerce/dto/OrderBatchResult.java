@@ -0,0 +1,156 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk order submission: one {@link OrderResult} per submitted
+ * order, in submission order, plus batch totals.
+ */
+public class OrderBatchResult {
+
+    /**
+     * How a batch treats orders that cannot be placed.
+     */
+    public enum Mode {
+        /** Place every order or none of them. */
+        ALL_OR_NOTHING,
+        /** Place every order that can be filled; reject the rest individually. */
+        BEST_EFFORT
+    }
+
+    /**
+     * What happened to a single order in the batch.
+     */
+    public enum Status {
+        PLACED,
+        /** The order itself was invalid or could not be filled. */
+        REJECTED,
+        /** The order was fine, but an all-or-nothing batch was rejected because of another order. */
+        SKIPPED
+    }
+
+    private Mode mode;
+    private int total;
+    private int placed;
+    private int rejected;
+    private long elapsedMillis;
+    private List<OrderResult> orders = new ArrayList<>();
+
+    public OrderBatchResult() {
+    }
+
+    public OrderBatchResult(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPlaced() {
+        return placed;
+    }
+
+    public void setPlaced(int placed) {
+        this.placed = placed;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<OrderResult> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderResult> orders) {
+        this.orders = orders;
+    }
+
+    /**
+     * Result for one order, identified by its 0-based position in the request.
+     */
+    public static class OrderResult {
+
+        private final int index;
+        private Status status;
+        private Long orderId;
+        private BigDecimal totalPrice;
+        private String error;
+        private List<StockShortage> shortages;
+
+        public OrderResult(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public void setOrderId(Long orderId) {
+            this.orderId = orderId;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public void setTotalPrice(BigDecimal totalPrice) {
+            this.totalPrice = totalPrice;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        public List<StockShortage> getShortages() {
+            return shortages;
+        }
+
+        public void setShortages(List<StockShortage> shortages) {
+            this.shortages = shortages;
+        }
+    }
+}
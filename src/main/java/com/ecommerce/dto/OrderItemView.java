@@ -0,0 +1,43 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of an order line for the REST API.
+ */
+public class OrderItemView {
+
+    private final Long id;
+    private final Long productId;
+    private final String productName;
+    private final Integer quantity;
+    private final BigDecimal price;
+
+    public OrderItemView(Long id, Long productId, String productName, Integer quantity, BigDecimal price) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
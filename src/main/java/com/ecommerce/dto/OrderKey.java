@@ -0,0 +1,14 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an order in a user's history: the (orderDate, id) pair that
+ * history pages seek on, for live and archived orders alike.
+ */
+public interface OrderKey {
+
+    Long getId();
+
+    LocalDateTime getOrderDate();
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of one order line joined with its order, user and
+ * product. An order without items yields a single row with null item
+ * columns. Rows are grouped back into {@link OrderView}s.
+ */
+public interface OrderLineRow {
+
+    /**
+     * JPQL select list matching this projection; append a WHERE / ORDER BY clause.
+     */
+    String SELECT = "SELECT o.id AS orderId, u.id AS userId, u.username AS username, o.orderDate AS orderDate, "
+            + "o.status AS status, o.shippingAddress AS shippingAddress, o.billingAddress AS billingAddress, "
+            + "o.totalPrice AS totalPrice, i.id AS itemId, pr.id AS productId, pr.name AS productName, "
+            + "i.quantity AS quantity, i.price AS price "
+            + "FROM Order o LEFT JOIN o.user u LEFT JOIN o.items i LEFT JOIN i.product pr";
+
+    /**
+     * The same select list over the archive tables, which hold plain IDs
+     * instead of associations; append a WHERE / ORDER BY clause.
+     */
+    String ARCHIVED_SELECT = "SELECT o.id AS orderId, o.userId AS userId, u.username AS username, "
+            + "o.orderDate AS orderDate, o.status AS status, o.shippingAddress AS shippingAddress, "
+            + "o.billingAddress AS billingAddress, o.totalPrice AS totalPrice, i.id AS itemId, "
+            + "i.productId AS productId, pr.name AS productName, i.quantity AS quantity, i.price AS price "
+            + "FROM ArchivedOrder o LEFT JOIN User u ON u.id = o.userId "
+            + "LEFT JOIN ArchivedOrderItem i ON i.orderId = o.id LEFT JOIN Product pr ON pr.id = i.productId";
+
+    Long getOrderId();
+
+    Long getUserId();
+
+    String getUsername();
+
+    LocalDateTime getOrderDate();
+
+    OrderStatus getStatus();
+
+    String getShippingAddress();
+
+    String getBillingAddress();
+
+    BigDecimal getTotalPrice();
+
+    Long getItemId();
+
+    Long getProductId();
+
+    String getProductName();
+
+    Integer getQuantity();
+
+    BigDecimal getPrice();
+}
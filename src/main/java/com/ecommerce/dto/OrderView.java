@@ -0,0 +1,96 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of an order and its lines for the REST API. Built from
+ * {@link OrderLineRow}s so that a list of orders with their items is
+ * loaded with a single joined query.
+ */
+public class OrderView {
+
+    private final Long id;
+    private final Long userId;
+    private final String username;
+    private final LocalDateTime orderDate;
+    private final OrderStatus status;
+    private final String shippingAddress;
+    private final String billingAddress;
+    private final BigDecimal totalPrice;
+    private final List<OrderItemView> items = new ArrayList<>();
+
+    public OrderView(Long id, Long userId, String username, LocalDateTime orderDate, OrderStatus status,
+                     String shippingAddress, String billingAddress, BigDecimal totalPrice) {
+        this.id = id;
+        this.userId = userId;
+        this.username = username;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.shippingAddress = shippingAddress;
+        this.billingAddress = billingAddress;
+        this.totalPrice = totalPrice;
+    }
+
+    /**
+     * Group flat order-line rows into orders, keeping the row order.
+     */
+    public static List<OrderView> fromRows(List<? extends OrderLineRow> rows) {
+        Map<Long, OrderView> orders = new LinkedHashMap<>();
+        for (OrderLineRow row : rows) {
+            OrderView order = orders.get(row.getOrderId());
+            if (order == null) {
+                order = new OrderView(row.getOrderId(), row.getUserId(), row.getUsername(), row.getOrderDate(),
+                        row.getStatus(), row.getShippingAddress(), row.getBillingAddress(), row.getTotalPrice());
+                orders.put(row.getOrderId(), order);
+            }
+            if (row.getItemId() != null) {
+                order.items.add(new OrderItemView(row.getItemId(), row.getProductId(), row.getProductName(),
+                        row.getQuantity(), row.getPrice()));
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public String getBillingAddress() {
+        return billingAddress;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public List<OrderItemView> getItems() {
+        return items;
+    }
+}
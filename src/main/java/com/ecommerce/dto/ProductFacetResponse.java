@@ -0,0 +1,70 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response for faceted product browsing: one page of matching products,
+ * the total match count and, per facet, the number of products each
+ * facet value would match given the other selected filters.
+ */
+public class ProductFacetResponse<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, Map<String, Integer>> facets;
+
+    public ProductFacetResponse() {
+    }
+
+    public ProductFacetResponse(List<T> content, int page, int size, long totalElements,
+                                Map<String, Map<String, Integer>> facets) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.facets = facets;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import: row counts, throughput and the rows
+ * that were rejected (1-based row numbers, header excluded for CSV).
+ */
+public class ProductImportResult {
+
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private Long stoppedAtRow;
+    private String stopReason;
+    private List<RowError> errors = new ArrayList<>();
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Row at which the import stopped before the end of the input, or null
+     * if all of it was read. Rows imported before it stay committed.
+     */
+    public Long getStoppedAtRow() {
+        return stoppedAtRow;
+    }
+
+    public void setStoppedAtRow(Long stoppedAtRow) {
+        this.stoppedAtRow = stoppedAtRow;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public static class RowError {
+
+        private final long row;
+        private final String sku;
+        private final String message;
+
+        public RowError(long row, String sku, String message) {
+            this.row = row;
+            this.sku = sku;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Product.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a product for the REST API. Carries the
+ * category's ID and name instead of the LAZY {@code category} association,
+ * so a list of summaries is fetched with a single joined query.
+ */
+public interface ProductSummary {
+
+    /**
+     * JPQL select list matching this projection; append a WHERE / ORDER BY clause.
+     */
+    String SELECT = "SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, "
+            + "p.originalPrice AS originalPrice, p.stockQuantity AS stockQuantity, p.sku AS sku, "
+            + "p.imageUrl AS imageUrl, p.status AS status, p.isFeatured AS featured, p.rating AS rating, "
+            + "p.reviewCount AS reviewCount, c.id AS categoryId, c.name AS categoryName, p.createdAt AS createdAt "
+            + "FROM Product p LEFT JOIN p.category c";
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    BigDecimal getPrice();
+
+    BigDecimal getOriginalPrice();
+
+    Integer getStockQuantity();
+
+    String getSku();
+
+    String getImageUrl();
+
+    ProductStatus getStatus();
+
+    Boolean getFeatured();
+
+    Double getRating();
+
+    Integer getReviewCount();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    LocalDateTime getCreatedAt();
+}
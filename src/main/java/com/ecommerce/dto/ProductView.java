@@ -0,0 +1,149 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.Product.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Plain, detached implementation of {@link ProductSummary}. Used where a
+ * summary is built from an already loaded entity, or must outlive the
+ * query that produced it (e.g. when cached).
+ */
+public class ProductView implements ProductSummary {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final BigDecimal originalPrice;
+    private final Integer stockQuantity;
+    private final String sku;
+    private final String imageUrl;
+    private final ProductStatus status;
+    private final Boolean featured;
+    private final Double rating;
+    private final Integer reviewCount;
+    private final Long categoryId;
+    private final String categoryName;
+    private final LocalDateTime createdAt;
+
+    public ProductView(Long id, String name, String description, BigDecimal price, BigDecimal originalPrice,
+                       Integer stockQuantity, String sku, String imageUrl, ProductStatus status, Boolean featured,
+                       Double rating, Integer reviewCount, Long categoryId, String categoryName,
+                       LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.stockQuantity = stockQuantity;
+        this.sku = sku;
+        this.imageUrl = imageUrl;
+        this.status = status;
+        this.featured = featured;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Build a view from an entity whose category has already been fetched.
+     */
+    public static ProductView of(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getOriginalPrice(), product.getStockQuantity(), product.getSku(), product.getImageUrl(),
+                product.getStatus(), product.isFeatured(), product.getRating(), product.getReviewCount(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getCreatedAt());
+    }
+
+    /**
+     * Detach a query projection into a plain object.
+     */
+    public static ProductView copyOf(ProductSummary summary) {
+        return new ProductView(summary.getId(), summary.getName(), summary.getDescription(), summary.getPrice(),
+                summary.getOriginalPrice(), summary.getStockQuantity(), summary.getSku(), summary.getImageUrl(),
+                summary.getStatus(), summary.getFeatured(), summary.getRating(), summary.getReviewCount(),
+                summary.getCategoryId(), summary.getCategoryName(), summary.getCreatedAt());
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public BigDecimal getOriginalPrice() {
+        return originalPrice;
+    }
+
+    @Override
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    @Override
+    public String getSku() {
+        return sku;
+    }
+
+    @Override
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    @Override
+    public ProductStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public Boolean getFeatured() {
+        return featured;
+    }
+
+    @Override
+    public Double getRating() {
+        return rating;
+    }
+
+    @Override
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    @Override
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    @Override
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    @Override
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Revenue, units sold and order count over a date range, as totals plus one
+ * row per day, category or product depending on how the report is grouped.
+ * Cancelled orders are not counted.
+ */
+public class SalesReport {
+
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private Row totals;
+    private List<Row> rows = new ArrayList<>();
+
+    public SalesReport() {
+    }
+
+    public SalesReport(LocalDate from, LocalDate to, String groupBy) {
+        this.from = from;
+        this.to = to;
+        this.groupBy = groupBy;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Row getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Row totals) {
+        this.totals = totals;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Figures for one day, category or product; {@code key} is the ISO date
+     * or the ID. For categories and products, {@code orders} counts the
+     * orders that contained them.
+     */
+    public static class Row {
+
+        private String key;
+        private BigDecimal revenue;
+        private long units;
+        private long orders;
+
+        public Row() {
+        }
+
+        public Row(String key, BigDecimal revenue, long units, long orders) {
+            this.key = key;
+            this.revenue = revenue;
+            this.units = units;
+            this.orders = orders;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public BigDecimal getRevenue() {
+            return revenue;
+        }
+
+        public void setRevenue(BigDecimal revenue) {
+            this.revenue = revenue;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public void setUnits(long units) {
+            this.units = units;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public void setOrders(long orders) {
+            this.orders = orders;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+/**
+ * Requested versus available stock for a single product in an order that
+ * could not be filled.
+ */
+public class StockShortage {
+
+    private final Long productId;
+    private final int requested;
+    private final int available;
+
+    public StockShortage(Long productId, int requested, int available) {
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.dto;
+
+/**
+ * A single typeahead suggestion: a product or category name and the
+ * weight it was ranked by.
+ */
+public class Suggestion {
+
+    public enum Type {
+        PRODUCT, CATEGORY
+    }
+
+    private final Type type;
+    private final Long id;
+    private final String text;
+    private final double weight;
+
+    public Suggestion(Type type, Long id, String text, double weight) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.weight = weight;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A closed order moved out of {@code orders} by the archiver. Same columns
+ * as {@link Order}, but the user is a plain ID without a foreign key so
+ * archived rows never constrain the live tables. Rows are written by SQL
+ * and only ever read.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user", columnList = "user_id, order_date, id")
+})
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Order.OrderStatus status;
+
+    @Column(name = "shipping_address")
+    private String shippingAddress;
+
+    @Column(name = "billing_address")
+    private String billingAddress;
+
+    @Column(name = "total_price", precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public ArchivedOrder() {
+    }
+
+    /**
+     * Detached {@link Order} copy of this archived order and its items.
+     * Users and products are ID-only stubs; the copy is for reading and
+     * must not be saved.
+     */
+    public Order toOrder(List<ArchivedOrderItem> archivedItems) {
+        User user = null;
+        if (userId != null) {
+            user = new User();
+            user.setId(userId);
+        }
+        Order order = new Order(id, user, orderDate, status, shippingAddress, billingAddress, totalPrice,
+                new ArrayList<>(), createdAt, updatedAt);
+        for (ArchivedOrderItem archived : archivedItems) {
+            Product product = new Product();
+            product.setId(archived.getProductId());
+            OrderItem item = new OrderItem();
+            item.setId(archived.getId());
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(archived.getQuantity());
+            item.setPrice(archived.getPrice());
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public String getBillingAddress() {
+        return billingAddress;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * An item of an {@link ArchivedOrder}. Order and product are plain IDs
+ * without foreign keys. Rows are written by SQL and only ever read.
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+        @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+})
+public class ArchivedOrderItem {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    @Column(name = "price", precision = 10, scale = 2)
+    private BigDecimal price;
+
+    public ArchivedOrderItem() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
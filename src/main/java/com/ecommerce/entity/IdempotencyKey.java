@@ -0,0 +1,113 @@
+package com.ecommerce.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key entity: records which order a client-supplied
+ * {@code Idempotency-Key} created, so a retried request returns that order
+ * instead of placing a new one. User and key form the primary key, so two
+ * concurrent inserts of the same key by the same user cannot both commit.
+ * The request hash lets a reused key with a different body be rejected.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKeyId.class)
+public class IdempotencyKey implements Persistable<IdempotencyKeyId> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    /** Hex SHA-256 of the normalised request body. */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Keys are only ever inserted; tells Spring Data to persist rather than merge
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyKey() {
+    }
+
+    public IdempotencyKey(Long userId, String key, String requestHash, Long orderId) {
+        this.userId = userId;
+        this.key = key;
+        this.requestHash = requestHash;
+        this.orderId = orderId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public IdempotencyKeyId getId() {
+        return new IdempotencyKeyId(userId, key);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
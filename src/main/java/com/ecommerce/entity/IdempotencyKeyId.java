@@ -0,0 +1,49 @@
+package com.ecommerce.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link IdempotencyKey}: keys are scoped to the user that
+ * sent them, so two users may use the same key independently.
+ */
+public class IdempotencyKeyId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long userId;
+    private String key;
+
+    public IdempotencyKeyId() {
+    }
+
+    public IdempotencyKeyId(Long userId, String key) {
+        this.userId = userId;
+        this.key = key;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdempotencyKeyId)) {
+            return false;
+        }
+        IdempotencyKeyId other = (IdempotencyKeyId) o;
+        return Objects.equals(userId, other.userId) && Objects.equals(key, other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, key);
+    }
+}
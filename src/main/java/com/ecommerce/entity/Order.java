@@ -11,11 +11,15 @@ import java.util.List;
  * Stores order information with proper relationships to User and OrderItems.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
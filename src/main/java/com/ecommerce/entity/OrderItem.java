@@ -12,7 +12,8 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +30,13 @@ public class OrderItem {
     @Column(name = "price", precision = 10, scale = 2)
     private BigDecimal price;
 
+    /**
+     * Whether this line's quantity has been taken off {@code products.stock_quantity}.
+     * False while the inventory ledger still holds it as a write-behind delta.
+     */
+    @Column(name = "stock_applied", nullable = false, columnDefinition = "boolean default true")
+    private boolean stockApplied = true;
+
     public OrderItem() {
     }
 
@@ -80,4 +88,12 @@ public class OrderItem {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public boolean isStockApplied() {
+        return stockApplied;
+    }
+
+    public void setStockApplied(boolean stockApplied) {
+        this.stockApplied = stockApplied;
+    }
 }
@@ -9,11 +9,17 @@ import java.time.LocalDateTime;
  * Stores product details and associates each product with a category.
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_rating_id", columnList = "rating, id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -48,13 +54,23 @@ public class Product {
     @Column(name = "is_featured")
     private boolean isFeatured = false;
 
-    @Column(name = "rating")
+    /** Never null, so the keyset listing can seek on {@code idx_products_rating_id} directly. */
+    @Column(name = "rating", nullable = false, columnDefinition = "DOUBLE DEFAULT 0")
     private Double rating = 0.0;
 
     @Column(name = "review_count")
     private Integer reviewCount = 0;
 
-    @Column(name = "created_at")
+    /** Sum of the ratings of reviews that have one; {@code rating} is this over {@code ratingCount}. */
+    @Column(name = "rating_sum")
+    private Double ratingSum = 0.0;
+
+    /** Reviews with a rating; unlike {@code reviewCount} this leaves out unrated reviews. */
+    @Column(name = "rating_count")
+    private Integer ratingCount = 0;
+
+    /** Never null, so the keyset listing can seek on {@code idx_products_created_at_id} directly. */
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
@@ -86,6 +102,9 @@ public class Product {
 
     @PrePersist
     protected void onCreate() {
+        if (rating == null) {
+            rating = 0.0;
+        }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -204,6 +223,22 @@ public class Product {
         this.reviewCount = reviewCount;
     }
 
+    public Double getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Double ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Integer ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
  * and records a rating and an optional comment.
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_product", columnList = "product_id")
+})
 public class Review {
 
     @Id
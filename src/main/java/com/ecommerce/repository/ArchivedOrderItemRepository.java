@@ -0,0 +1,16 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for ArchivedOrderItem entities.
+ */
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    List<ArchivedOrderItem> findByOrderIdOrderById(Long orderId);
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderKey;
+import com.ecommerce.dto.OrderLineRow;
+import com.ecommerce.entity.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for ArchivedOrder entities. Read-only: rows are moved in by
+ * {@link com.ecommerce.service.OrderArchiveService}.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Order lines of a single archived order, in one query.
+     *
+     * @param orderId the order ID
+     * @return rows for the order, empty if it is not archived
+     */
+    @Query(OrderLineRow.ARCHIVED_SELECT + " WHERE o.id = :orderId ORDER BY i.id")
+    List<OrderLineRow> findOrderLinesByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Order lines of every archived order placed by a user, in one query.
+     *
+     * @param userId the ID of the user
+     * @return rows for the user's archived orders
+     */
+    @Query(OrderLineRow.ARCHIVED_SELECT + " WHERE o.userId = :userId ORDER BY o.id, i.id")
+    List<OrderLineRow> findOrderLinesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Keys of a user's newest archived orders, newest first; the archive
+     * half of the first order history page.
+     *
+     * @param userId the ID of the user
+     * @param limit  page size and offset 0
+     * @return order keys, newest first
+     */
+    @Query("SELECT o.id AS id, o.orderDate AS orderDate FROM ArchivedOrder o WHERE o.userId = :userId "
+            + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderKey> findOrderKeysByUserId(@Param("userId") Long userId, Pageable limit);
+
+    /**
+     * Keys of a user's archived orders older than the given (orderDate, id)
+     * position, newest first; the archive half of later history pages.
+     *
+     * @param userId     the ID of the user
+     * @param beforeDate order date of the last order on the previous page
+     * @param beforeId   ID of the last order on the previous page
+     * @param limit      page size and offset 0
+     * @return order keys, newest first
+     */
+    @Query("SELECT o.id AS id, o.orderDate AS orderDate FROM ArchivedOrder o WHERE o.userId = :userId "
+            + "AND (o.orderDate < :beforeDate OR (o.orderDate = :beforeDate AND o.id < :beforeId)) "
+            + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderKey> findOrderKeysByUserIdBefore(@Param("userId") Long userId,
+                                               @Param("beforeDate") LocalDateTime beforeDate,
+                                               @Param("beforeId") Long beforeId,
+                                               Pageable limit);
+
+    /**
+     * Order lines of the given archived orders, newest order first, in one query.
+     *
+     * @param orderIds the order IDs
+     * @return rows for the orders
+     */
+    @Query(OrderLineRow.ARCHIVED_SELECT + " WHERE o.id IN :orderIds ORDER BY o.orderDate DESC, o.id DESC, i.id")
+    List<OrderLineRow> findOrderLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.CategorySummary;
 import com.ecommerce.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -27,4 +28,25 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> searchByKeyword(@Param("keyword") String keyword);
 
     boolean existsByName(String name);
+
+    @Query(CategorySummary.SELECT + " ORDER BY c.id")
+    List<CategorySummary> findAllSummaries();
+
+    @Query(CategorySummary.SELECT + " WHERE c.isActive = true ORDER BY c.id")
+    List<CategorySummary> findActiveSummaries();
+
+    @Query(CategorySummary.SELECT + " WHERE c.id = :id")
+    Optional<CategorySummary> findSummaryById(@Param("id") Long id);
+
+    @Query(CategorySummary.SELECT + " WHERE c.name = :name")
+    Optional<CategorySummary> findSummaryByName(@Param("name") String name);
+
+    @Query(CategorySummary.SELECT + " WHERE pc.id IS NULL ORDER BY c.id")
+    List<CategorySummary> findRootSummaries();
+
+    @Query(CategorySummary.SELECT + " WHERE pc.id = :parentId ORDER BY c.id")
+    List<CategorySummary> findSummariesByParentId(@Param("parentId") Long parentId);
+
+    @Query(CategorySummary.SELECT + " WHERE c.name LIKE %:keyword% OR c.description LIKE %:keyword% ORDER BY c.id")
+    List<CategorySummary> searchSummariesByKeyword(@Param("keyword") String keyword);
 }
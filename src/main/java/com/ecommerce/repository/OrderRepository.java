@@ -1,10 +1,17 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.OrderKey;
+import com.ecommerce.dto.OrderLineRow;
 import com.ecommerce.entity.Order;
 import com.ecommerce.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -30,4 +37,69 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return list of orders belonging to the user
      */
     List<Order> findByUserId(Long userId);
+
+    /**
+     * All order lines joined with their order, user and product, in one query.
+     *
+     * @return one row per order item (or per order, for orders without items)
+     */
+    @Query(OrderLineRow.SELECT + " ORDER BY o.id, i.id")
+    List<OrderLineRow> findAllOrderLines();
+
+    /**
+     * Order lines of a single order, in one query.
+     *
+     * @param orderId the order ID
+     * @return rows for the order, empty if it does not exist
+     */
+    @Query(OrderLineRow.SELECT + " WHERE o.id = :orderId ORDER BY i.id")
+    List<OrderLineRow> findOrderLinesByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Order lines of every order placed by a user, in one query.
+     *
+     * @param userId the ID of the user
+     * @return rows for the user's orders
+     */
+    @Query(OrderLineRow.SELECT + " WHERE u.id = :userId ORDER BY o.id, i.id")
+    List<OrderLineRow> findOrderLinesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Keys of a user's newest orders, newest first (first page of order
+     * history). Ordered by (orderDate, id) so pages have a stable boundary.
+     *
+     * @param userId the ID of the user
+     * @param limit  page size and offset 0
+     * @return order keys, newest first
+     */
+    @Query("SELECT o.id AS id, o.orderDate AS orderDate FROM Order o WHERE o.user.id = :userId "
+            + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderKey> findOrderKeysByUserId(@Param("userId") Long userId, Pageable limit);
+
+    /**
+     * Keys of a user's orders older than the given (orderDate, id) position,
+     * newest first (next pages of order history).
+     *
+     * @param userId     the ID of the user
+     * @param beforeDate order date of the last order on the previous page
+     * @param beforeId   ID of the last order on the previous page
+     * @param limit      page size and offset 0
+     * @return order keys, newest first
+     */
+    @Query("SELECT o.id AS id, o.orderDate AS orderDate FROM Order o WHERE o.user.id = :userId "
+            + "AND (o.orderDate < :beforeDate OR (o.orderDate = :beforeDate AND o.id < :beforeId)) "
+            + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderKey> findOrderKeysByUserIdBefore(@Param("userId") Long userId,
+                                               @Param("beforeDate") LocalDateTime beforeDate,
+                                               @Param("beforeId") Long beforeId,
+                                               Pageable limit);
+
+    /**
+     * Order lines of the given orders, newest order first, in one query.
+     *
+     * @param orderIds the order IDs
+     * @return rows for the orders
+     */
+    @Query(OrderLineRow.SELECT + " WHERE o.id IN :orderIds ORDER BY o.orderDate DESC, o.id DESC, i.id")
+    List<OrderLineRow> findOrderLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
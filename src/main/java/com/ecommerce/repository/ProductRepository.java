@@ -1,43 +1,135 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ProductSummary;
 import com.ecommerce.entity.Product;
 import com.ecommerce.entity.Product.ProductStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
-    Page<Product> findByStatus(ProductStatus status, Pageable pageable);
+    List<Product> findByIsFeaturedTrue();
 
-    Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
+    List<Product> findBySkuIn(Collection<String> skus);
 
-    List<Product> findByIsFeaturedTrue();
-    
-    Page<Product> findByIsFeaturedTrue(Pageable pageable);
+    @Query(ProductSummary.SELECT + " ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(value = ProductSummary.SELECT, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    @Query(ProductSummary.SELECT + " WHERE p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(ProductSummary.SELECT + " WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.status = :status",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = :status")
+    Page<ProductSummary> findByStatus(@Param("status") ProductStatus status, Pageable pageable);
+
+    @Query(value = ProductSummary.SELECT + " WHERE c.id = :categoryId",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
+    Page<ProductSummary> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(ProductSummary.SELECT + " WHERE p.isFeatured = true ORDER BY p.id")
+    List<ProductSummary> findFeaturedSummaries();
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.isFeatured = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isFeatured = true")
+    Page<ProductSummary> findByIsFeaturedTrue(Pageable pageable);
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
+    Page<ProductSummary> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.price BETWEEN :minPrice AND :maxPrice",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductSummary> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
+                                          @Param("maxPrice") BigDecimal maxPrice,
+                                          Pageable pageable);
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.rating >= :minRating",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.rating >= :minRating")
+    Page<ProductSummary> findByMinRating(@Param("minRating") Double minRating, Pageable pageable);
+
+    @Query(value = ProductSummary.SELECT + " WHERE p.stockQuantity > 0",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.stockQuantity > 0")
+    Page<ProductSummary> findInStock(Pageable pageable);
+
+    @Query(ProductSummary.SELECT + " ORDER BY p.rating DESC")
+    List<ProductSummary> findTopByRating(Pageable pageable);
+
+    @Query(ProductSummary.SELECT + " ORDER BY p.createdAt DESC")
+    List<ProductSummary> findTopByCreatedAt(Pageable pageable);
+
+    @Query(ProductSummary.SELECT + " WHERE c.id = :categoryId ORDER BY p.rating DESC")
+    List<ProductSummary> findTopByRatingInCategory(@Param("categoryId") Long categoryId, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
-    Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    @Query(ProductSummary.SELECT + " WHERE c.id = :categoryId ORDER BY p.createdAt DESC")
+    List<ProductSummary> findTopByCreatedAtInCategory(@Param("categoryId") Long categoryId, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
-    Page<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
-                                   @Param("maxPrice") BigDecimal maxPrice,
-                                   Pageable pageable);
+    /**
+     * Load and row-lock products in ID order, so concurrent callers lock
+     * them in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT p FROM Product p WHERE p.rating >= :minRating")
-    Page<Product> findByMinRating(@Param("minRating") Double minRating, Pageable pageable);
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0")
-    Page<Product> findInStock(Pageable pageable);
+    /**
+     * Take {@code quantity} units from stock only if that many are left.
+     * The row lock taken by the UPDATE serialises concurrent decrements.
+     *
+     * Clears the persistence context so later reads see the new quantity.
+     *
+     * @return 1 if the stock was decremented, 0 if there was not enough (or no such product)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStockIfAvailable(@Param("id") Long id, @Param("quantity") int quantity);
 
-    List<Product> findTop10ByOrderByRatingDesc();
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.status = :status WHERE p.id = :id AND p.stockQuantity <= 0")
+    int updateStatusIfDepleted(@Param("id") Long id, @Param("status") ProductStatus status);
 
-    List<Product> findTop10ByOrderByCreatedAtDesc();
+    /**
+     * Apply one review change to a product's running rating aggregate in a
+     * single statement: {@code sumDelta} to the rating sum, {@code ratedDelta}
+     * to the number of rated reviews and {@code reviewDelta} to the review
+     * count, recomputing the average from the new sum and count. The row lock
+     * taken by the UPDATE serialises concurrent changes to the same product.
+     * {@code rating} is assigned first because MySQL evaluates assignments
+     * left to right against already updated columns.
+     *
+     * @return 1 if the product exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET "
+            + "p.rating = COALESCE((COALESCE(p.ratingSum, 0) + :sumDelta) "
+            + "/ NULLIF(COALESCE(p.ratingCount, 0) + :ratedDelta, 0), 0), "
+            + "p.ratingSum = COALESCE(p.ratingSum, 0) + :sumDelta, "
+            + "p.ratingCount = COALESCE(p.ratingCount, 0) + :ratedDelta, "
+            + "p.reviewCount = COALESCE(p.reviewCount, 0) + :reviewDelta, "
+            + "p.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE p.id = :id")
+    int applyRatingDelta(@Param("id") Long id, @Param("sumDelta") double sumDelta,
+                         @Param("ratedDelta") int ratedDelta, @Param("reviewDelta") int reviewDelta);
 }
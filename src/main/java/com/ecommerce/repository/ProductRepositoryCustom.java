@@ -0,0 +1,27 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Product;
+
+import java.util.List;
+
+/**
+ * Custom query methods for Product entities that cannot be expressed as
+ * derived or annotated queries. Implemented by {@link ProductRepositoryImpl}.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset (seek) listing: products ordered by {@code sortKey} then ID,
+     * starting strictly after the given position, with the category fetched
+     * in the same query. No offset and no count
+     * query, so every page costs the same.
+     *
+     * @param sortKey    one of {@code id}, {@code name}, {@code price}, {@code rating}, {@code createdAt}
+     * @param descending sort direction
+     * @param afterValue sort key value of the last row already seen, or null for the first page
+     * @param afterId    ID of the last row already seen, or null for the first page
+     * @param limit      maximum number of products to return
+     * @return products following the given position
+     */
+    List<Product> findPageAfter(String sortKey, boolean descending, Object afterValue, Long afterId, int limit);
+}
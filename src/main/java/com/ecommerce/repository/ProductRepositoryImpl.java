@@ -0,0 +1,71 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+/**
+ * Criteria-based implementation of {@link ProductRepositoryCustom}.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Product> findPageAfter(String sortKey, boolean descending, Object afterValue, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        product.fetch("category", JoinType.LEFT);
+        Expression<Long> id = product.get("id");
+
+        if ("id".equals(sortKey)) {
+            if (afterId != null) {
+                query.where(descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId));
+            }
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            Expression key = sortExpression(product, sortKey);
+            if (afterId != null) {
+                Comparable value = (Comparable) afterValue;
+                Predicate beyondKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+                Predicate beyondId = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+                query.where(cb.or(beyondKey, cb.and(cb.equal(key, value), beyondId)));
+            }
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * The raw sort column, so the seek and ORDER BY can use its
+     * {@code (column, id)} index; every sortable column is NOT NULL.
+     */
+    private static Expression<?> sortExpression(Root<Product> product, String sortKey) {
+        switch (sortKey) {
+            case "name":
+                return product.get("name");
+            case "price":
+                return product.get("price");
+            case "rating":
+                return product.get("rating");
+            case "createdAt":
+                return product.get("createdAt");
+            default:
+                throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CategorySummary;
 import com.ecommerce.entity.Category;
 import com.ecommerce.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,6 +14,8 @@ import java.util.Optional;
 /**
  * Service layer for category operations. Provides CRUD functionality and
  * search capabilities for the monolithic e-commerce application.
+ * The {@code *Summaries} methods back the REST API with projections that
+ * do not touch the LAZY category associations.
  */
 @Service
 public class CategoryService {
@@ -18,6 +23,21 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private RenderedPageCache pageCache;
+
+    /**
+     * Load category names into the typeahead index once the application
+     * (and its sample data) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        suggestionIndex.indexCategories(categoryRepository.findAll());
+    }
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -38,7 +58,10 @@ public class CategoryService {
         if (categoryRepository.existsByName(category.getName())) {
             throw new RuntimeException("Category with this name already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        suggestionIndex.indexCategory(saved);
+        pageCache.invalidateAll();
+        return saved;
     }
 
     public Category updateCategory(Long id, Category categoryDetails) {
@@ -51,11 +74,16 @@ public class CategoryService {
         category.setParentCategory(categoryDetails.getParentCategory());
         category.setActive(categoryDetails.isActive());
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        suggestionIndex.indexCategory(saved);
+        pageCache.invalidateAll();
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        suggestionIndex.removeCategory(id);
+        pageCache.invalidateAll();
     }
 
     public List<Category> getRootCategories() {
@@ -70,6 +98,34 @@ public class CategoryService {
         return categoryRepository.searchByKeyword(keyword);
     }
 
+    public List<CategorySummary> getAllCategorySummaries() {
+        return categoryRepository.findAllSummaries();
+    }
+
+    public List<CategorySummary> getActiveCategorySummaries() {
+        return categoryRepository.findActiveSummaries();
+    }
+
+    public Optional<CategorySummary> getCategorySummaryById(Long id) {
+        return categoryRepository.findSummaryById(id);
+    }
+
+    public Optional<CategorySummary> getCategorySummaryByName(String name) {
+        return categoryRepository.findSummaryByName(name);
+    }
+
+    public List<CategorySummary> getRootCategorySummaries() {
+        return categoryRepository.findRootSummaries();
+    }
+
+    public List<CategorySummary> getSubCategorySummaries(Long parentId) {
+        return categoryRepository.findSummariesByParentId(parentId);
+    }
+
+    public List<CategorySummary> searchCategorySummaries(String keyword) {
+        return categoryRepository.searchSummariesByKeyword(keyword);
+    }
+
     public boolean existsByName(String name) {
         return categoryRepository.existsByName(name);
     }
@@ -0,0 +1,488 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.LogEvent;
+import com.ecommerce.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of order and stock changes, in fixed 64-byte binary
+ * records written to memory-mapped segment files.
+ * <p>
+ * Services stage events during their transaction; once it commits, the
+ * transaction's events are appended together and, with
+ * {@code await-durable}, the committing thread waits until they are on
+ * disk. A single flusher thread forces the active segment every
+ * {@code flush-interval-ms}, so all appends in that window share one
+ * sync (group commit). When a segment is full it is forced and a new one
+ * is started, named after its first sequence number. On startup the last
+ * segment is scanned and appending resumes after its last record with a
+ * valid checksum. The directory is locked while the log is open, so a
+ * second process pointed at it fails to start. Events are written after
+ * commit, so a crash between a commit and its append loses those events.
+ * <p>
+ * {@link #read} tails the log from any sequence number, optionally waiting
+ * for new events, so consumers can catch up without querying the
+ * database. Record layout: sequence, epoch millis, entity ID, amount
+ * (8 bytes each), delta (4), type, from and to status (1 each), padding,
+ * and a CRC32 of the first 60 bytes.
+ */
+@Service
+public class EventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLog.class);
+
+    static final int RECORD_SIZE = 64;
+    private static final int CRC_OFFSET = 60;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "event-log.lock";
+    private static final long MAX_DURABLE_WAIT_MILLIS = 1000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final long flushIntervalNanos;
+    private final boolean awaitDurable;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private Segment active;
+    private int activeIndex;
+    private long nextSequence = 1;
+
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private final Object appendMonitor = new Object();
+    private final Object durableMonitor = new Object();
+    private volatile boolean running;
+    private Thread flusher;
+    private FileChannel lockChannel;
+
+    private final Counter appended;
+    private final Counter failures;
+    private final DistributionSummary groupSize;
+
+    public EventLog(MeterRegistry meterRegistry,
+                    @Value("${ecommerce.event-log.enabled:true}") boolean enabled,
+                    @Value("${ecommerce.event-log.dir:${java.io.tmpdir}/ecommerce-event-log}") String directory,
+                    @Value("${ecommerce.event-log.segment-size-mb:64}") int segmentSizeMb,
+                    @Value("${ecommerce.event-log.flush-interval-ms:2}") long flushIntervalMillis,
+                    @Value("${ecommerce.event-log.await-durable:true}") boolean awaitDurable) {
+        if (segmentSizeMb < 1) {
+            throw new IllegalArgumentException("ecommerce.event-log.segment-size-mb must be at least 1");
+        }
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = (long) segmentSizeMb * 1024 * 1024 / RECORD_SIZE * RECORD_SIZE;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.awaitDurable = awaitDurable;
+        this.appended = meterRegistry.counter("ecommerce.event-log.appended");
+        this.failures = meterRegistry.counter("ecommerce.event-log.append.failures");
+        this.groupSize = DistributionSummary.builder("ecommerce.event-log.group.size")
+                .description("Records made durable per sync")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        lockDirectory();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long firstSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(firstSequence, new Segment(firstSequence, file, (int) (Files.size(file) / RECORD_SIZE)));
+            }
+        }
+        synchronized (this) {
+            if (segments.isEmpty()) {
+                startSegment(1);
+            } else {
+                recover(segments.lastEntry().getValue());
+            }
+        }
+        durableSequence = appendedSequence;
+        running = true;
+        flusher = new Thread(this::flushLoop, "event-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Event log open in {} at sequence {}", directory, appendedSequence);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        synchronized (this) {
+            active.buffer.force();
+        }
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+        // Closing the channel releases the directory lock
+        lockChannel.close();
+    }
+
+    /**
+     * Claim the segment directory for this process. Two writers would
+     * recover the same last segment and overwrite each other's records,
+     * so a directory already in use, by another JVM or another
+     * application context in this one, fails startup instead.
+     */
+    private void lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Event log directory " + directory
+                    + " is already in use; give each instance its own ecommerce.event-log.dir");
+        }
+        lockChannel = channel;
+    }
+
+    public void orderPlaced(Order order) {
+        stage(new LogEvent(LogEvent.Type.ORDER_PLACED, order.getId(), cents(order.getTotalPrice()), 0,
+                null, order.getStatus()));
+    }
+
+    public void orderStatusChanged(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        stage(new LogEvent(LogEvent.Type.ORDER_STATUS_CHANGED, orderId, 0, 0, from, to));
+    }
+
+    public void orderDeleted(Long orderId) {
+        stage(new LogEvent(LogEvent.Type.ORDER_DELETED, orderId, 0, 0, null, null));
+    }
+
+    public void stockSet(Long productId, Integer stockQuantity) {
+        stage(new LogEvent(LogEvent.Type.STOCK_SET, productId, stockQuantity != null ? stockQuantity : 0, 0,
+                null, null));
+    }
+
+    public void stockDecremented(Long productId, int quantity) {
+        stage(new LogEvent(LogEvent.Type.STOCK_DECREMENTED, productId, 0, -quantity, null, null));
+    }
+
+    /**
+     * Events with a sequence number above {@code afterSequence}, oldest
+     * first.
+     *
+     * @param max         most events to return
+     * @param waitMillis  if there are none yet, how long to wait for one
+     */
+    public List<LogEvent> read(long afterSequence, int max, long waitMillis) throws InterruptedException {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        if (waitMillis > 0 && appendedSequence <= afterSequence) {
+            long deadline = System.currentTimeMillis() + waitMillis;
+            synchronized (appendMonitor) {
+                long remaining;
+                while (appendedSequence <= afterSequence && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    appendMonitor.wait(remaining);
+                }
+            }
+        }
+
+        List<LogEvent> events = new ArrayList<>();
+        long sequence = Math.max(afterSequence + 1, segments.firstKey());
+        long last = appendedSequence;
+        while (events.size() < max && sequence <= last) {
+            Segment segment = segments.floorEntry(sequence).getValue();
+            int index = (int) (sequence - segment.firstSequence);
+            if (index >= segment.capacity) {
+                Long next = segments.higherKey(segment.firstSequence);
+                if (next == null) {
+                    break;
+                }
+                sequence = next;
+                continue;
+            }
+            LogEvent event = decode(segment.view(), index);
+            if (event == null || event.getSequence() != sequence) {
+                break;
+            }
+            events.add(event);
+            sequence++;
+        }
+        return events;
+    }
+
+    /**
+     * Sequence number of the newest appended event, 0 if none.
+     */
+    public long getLastSequence() {
+        return appendedSequence;
+    }
+
+    private void stage(LogEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(Collections.singletonList(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<LogEvent> pending = (List<LogEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<LogEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(EventLog.this);
+                    if (status == STATUS_COMMITTED) {
+                        commit(events);
+                    }
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void commit(List<LogEvent> events) {
+        long last;
+        try {
+            last = append(events);
+        } catch (RuntimeException e) {
+            failures.increment(events.size());
+            log.error("Failed to append {} events to the event log", events.size(), e);
+            return;
+        }
+        appended.increment(events.size());
+        synchronized (appendMonitor) {
+            appendMonitor.notifyAll();
+        }
+        if (awaitDurable) {
+            awaitDurable(last);
+        }
+    }
+
+    private synchronized long append(List<LogEvent> events) {
+        for (LogEvent event : events) {
+            if (activeIndex == active.capacity) {
+                active.buffer.force();
+                startSegment(nextSequence);
+            }
+            event.setSequence(nextSequence);
+            encode(event);
+            ByteBuffer target = active.buffer;
+            target.position(activeIndex * RECORD_SIZE);
+            target.put(record.array());
+            activeIndex++;
+            nextSequence++;
+        }
+        appendedSequence = nextSequence - 1;
+        return appendedSequence;
+    }
+
+    private void awaitDurable(long sequence) {
+        long deadline = System.currentTimeMillis() + MAX_DURABLE_WAIT_MILLIS;
+        synchronized (durableMonitor) {
+            long remaining;
+            while (durableSequence < sequence && running
+                    && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    durableMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Group commit: one sync covers everything appended since the last one.
+     */
+    private void flushLoop() {
+        while (running) {
+            long target;
+            MappedByteBuffer buffer;
+            synchronized (this) {
+                target = appendedSequence;
+                buffer = active.buffer;
+            }
+            if (target > durableSequence) {
+                // Earlier segments were forced when they were rolled
+                buffer.force();
+                groupSize.record(target - durableSequence);
+                durableSequence = target;
+                synchronized (durableMonitor) {
+                    durableMonitor.notifyAll();
+                }
+            }
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+    }
+
+    private void startSegment(long firstSequence) {
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(firstSequence, file, (int) (segmentBytes / RECORD_SIZE));
+        segment.buffer = map(file, FileChannel.MapMode.READ_WRITE, segmentBytes);
+        segments.put(firstSequence, segment);
+        active = segment;
+        activeIndex = 0;
+    }
+
+    /**
+     * Resume appending after the last valid record of the newest segment.
+     */
+    private void recover(Segment segment) {
+        segment.buffer = map(segment.path, FileChannel.MapMode.READ_WRITE, (long) segment.capacity * RECORD_SIZE);
+        int index = 0;
+        while (index < segment.capacity) {
+            LogEvent event = decode(segment.buffer, index);
+            if (event == null || event.getSequence() != segment.firstSequence + index) {
+                break;
+            }
+            index++;
+        }
+        active = segment;
+        activeIndex = index;
+        nextSequence = segment.firstSequence + index;
+        appendedSequence = nextSequence - 1;
+    }
+
+    private void encode(LogEvent event) {
+        record.clear();
+        record.putLong(event.getSequence());
+        record.putLong(event.getTimestamp().toEpochMilli());
+        record.putLong(event.getEntityId());
+        record.putLong(event.getAmount());
+        record.putInt(event.getDelta());
+        record.put((byte) event.getType().ordinal());
+        record.put(statusCode(event.getFromStatus()));
+        record.put(statusCode(event.getToStatus()));
+        crc.reset();
+        crc.update(record.array(), 0, CRC_OFFSET);
+        record.putInt(CRC_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * @return the record in slot {@code index}, or null if the slot holds no valid record
+     */
+    private static LogEvent decode(ByteBuffer buffer, int index) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        ByteBuffer slot = buffer.duplicate();
+        slot.position(index * RECORD_SIZE);
+        slot.get(bytes);
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, CRC_OFFSET);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt(CRC_OFFSET) != (int) checksum.getValue()) {
+            return null;
+        }
+        LogEvent event = new LogEvent();
+        event.setSequence(in.getLong());
+        event.setTimestamp(Instant.ofEpochMilli(in.getLong()));
+        event.setEntityId(in.getLong());
+        event.setAmount(in.getLong());
+        event.setDelta(in.getInt());
+        event.setType(LogEvent.Type.values()[in.get()]);
+        event.setFromStatus(status(in.get()));
+        event.setToStatus(status(in.get()));
+        return event;
+    }
+
+    private static byte statusCode(Order.OrderStatus status) {
+        return (byte) (status == null ? 0 : status.ordinal() + 1);
+    }
+
+    private static Order.OrderStatus status(byte code) {
+        return code == 0 ? null : Order.OrderStatus.values()[code - 1];
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            return channel.map(mode, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One segment file. Older segments are mapped read-only the first time
+     * a reader needs them.
+     */
+    private static final class Segment {
+        final long firstSequence;
+        final Path path;
+        final int capacity;
+        volatile MappedByteBuffer buffer;
+
+        Segment(long firstSequence, Path path, int capacity) {
+            this.firstSequence = firstSequence;
+            this.path = path;
+            this.capacity = capacity;
+        }
+
+        ByteBuffer view() {
+            MappedByteBuffer mapped = buffer;
+            if (mapped == null) {
+                synchronized (this) {
+                    if (buffer == null) {
+                        buffer = map(path, FileChannel.MapMode.READ_ONLY, (long) capacity * RECORD_SIZE);
+                    }
+                    mapped = buffer;
+                }
+            }
+            return mapped;
+        }
+    }
+}
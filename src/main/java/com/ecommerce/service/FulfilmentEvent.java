@@ -0,0 +1,41 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+
+/**
+ * A committed order status transition, queued for the stage of its new
+ * status. {@code from} is null for newly placed orders.
+ */
+public class FulfilmentEvent {
+
+    private final Long orderId;
+    private final Order.OrderStatus from;
+    private final Order.OrderStatus to;
+    private final long enqueuedAtNanos;
+
+    public FulfilmentEvent(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        this.orderId = orderId;
+        this.from = from;
+        this.to = to;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Order.OrderStatus getFrom() {
+        return from;
+    }
+
+    public Order.OrderStatus getTo() {
+        return to;
+    }
+
+    /**
+     * {@link System#nanoTime()} when the transition was published.
+     */
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+
+import java.util.List;
+
+/**
+ * Downstream work for orders entering a status, such as payment capture on
+ * {@code PROCESSING} or a warehouse hand-off on {@code SHIPPED}. Any bean
+ * implementing this is picked up by {@link FulfilmentPipeline}.
+ */
+public interface FulfilmentHandler {
+
+    /**
+     * The status whose incoming transitions this handler processes.
+     */
+    Order.OrderStatus stage();
+
+    /**
+     * Process a batch of transitions into {@link #stage()}, oldest first.
+     * Runs on the stage's consumer thread, after the transitions have
+     * committed; an exception fails the whole batch for this handler.
+     */
+    void handle(List<FulfilmentEvent> events);
+}
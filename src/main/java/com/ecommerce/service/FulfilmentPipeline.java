@@ -0,0 +1,220 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Staged, in-process order fulfilment. Every order status with at least one
+ * {@link FulfilmentHandler} gets a stage: a bounded {@link RingBuffer} and
+ * one consumer thread that drains it in batches and hands each batch to the
+ * stage's handlers. {@link OrderService} publishes transitions once they
+ * commit, so a status change costs the HTTP thread one lock-free enqueue
+ * and the downstream work drains behind it.
+ * <p>
+ * When a stage's buffer stays full for {@code offer-timeout-ms}, the
+ * publishing thread runs the handlers itself, which slows callers down
+ * instead of dropping work. With {@code ecommerce.fulfilment.async=false}
+ * handlers always run on the publishing thread. Per stage, queue depth,
+ * batch sizes, outcomes and publish-to-handled latency are recorded under
+ * {@code ecommerce.fulfilment.*}.
+ */
+@Service
+public class FulfilmentPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(FulfilmentPipeline.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Map<Order.OrderStatus, Stage> stages = new EnumMap<>(Order.OrderStatus.class);
+    private final boolean async;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private volatile boolean running = true;
+
+    public FulfilmentPipeline(ObjectProvider<FulfilmentHandler> handlers, MeterRegistry meterRegistry,
+                              @Value("${ecommerce.fulfilment.async:true}") boolean async,
+                              @Value("${ecommerce.fulfilment.queue-capacity:1024}") int queueCapacity,
+                              @Value("${ecommerce.fulfilment.batch-size:64}") int batchSize,
+                              @Value("${ecommerce.fulfilment.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.async = async;
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        Map<Order.OrderStatus, List<FulfilmentHandler>> byStage = handlers.orderedStream()
+                .collect(Collectors.groupingBy(FulfilmentHandler::stage));
+        for (Map.Entry<Order.OrderStatus, List<FulfilmentHandler>> entry : byStage.entrySet()) {
+            stages.put(entry.getKey(), new Stage(entry.getKey(), entry.getValue(), queueCapacity, meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!async) {
+            return;
+        }
+        for (Stage stage : stages.values()) {
+            stage.consumer.start();
+        }
+        if (!stages.isEmpty()) {
+            log.info("Fulfilment pipeline started with stages {}", stages.keySet());
+        }
+    }
+
+    /**
+     * Stop accepting work, let consumers drain what is queued and wait
+     * briefly for them to finish.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Stage stage : stages.values()) {
+            LockSupport.unpark(stage.consumer);
+        }
+        for (Stage stage : stages.values()) {
+            stage.consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Queue a status transition for its stage once the current transaction
+     * commits, or right away if there is none. A no-op for statuses without
+     * handlers.
+     */
+    public void publish(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        Stage stage = stages.get(to);
+        if (stage == null || from == to) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stage.publish(new FulfilmentEvent(orderId, from, to));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stage.publish(new FulfilmentEvent(orderId, from, to));
+            }
+        });
+    }
+
+    /**
+     * One status's buffer, consumer thread, handlers and meters.
+     */
+    private final class Stage implements Runnable {
+
+        private final Order.OrderStatus status;
+        private final List<FulfilmentHandler> handlers;
+        private final RingBuffer<FulfilmentEvent> buffer;
+        private final Thread consumer;
+        private volatile boolean waiting;
+
+        private final Timer latency;
+        private final DistributionSummary batchSizes;
+        private final Counter handled;
+        private final Counter failed;
+        private final Counter callerRuns;
+
+        Stage(Order.OrderStatus status, List<FulfilmentHandler> handlers, int capacity, MeterRegistry meterRegistry) {
+            this.status = status;
+            this.handlers = handlers;
+            this.buffer = new RingBuffer<>(capacity);
+            this.consumer = new Thread(this, "fulfilment-" + status.name().toLowerCase());
+            this.consumer.setDaemon(true);
+
+            String stage = status.name();
+            Gauge.builder("ecommerce.fulfilment.queue.depth", buffer, RingBuffer::size)
+                    .tag("stage", stage).register(meterRegistry);
+            Gauge.builder("ecommerce.fulfilment.queue.capacity", buffer, RingBuffer::capacity)
+                    .tag("stage", stage).register(meterRegistry);
+            this.latency = Timer.builder("ecommerce.fulfilment.latency")
+                    .description("Time from publishing a transition until its batch was handled")
+                    .tag("stage", stage)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.batchSizes = DistributionSummary.builder("ecommerce.fulfilment.batch.size")
+                    .tag("stage", stage).register(meterRegistry);
+            this.handled = meterRegistry.counter("ecommerce.fulfilment.events", "stage", stage, "outcome", "handled");
+            this.failed = meterRegistry.counter("ecommerce.fulfilment.events", "stage", stage, "outcome", "failed");
+            this.callerRuns = meterRegistry.counter("ecommerce.fulfilment.events", "stage", stage, "outcome", "caller_runs");
+        }
+
+        void publish(FulfilmentEvent event) {
+            if (!async) {
+                process(Collections.singletonList(event));
+                return;
+            }
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (!buffer.offer(event)) {
+                if (!running || System.nanoTime() - deadline >= 0) {
+                    // Backpressure: do the work here rather than drop it
+                    callerRuns.increment();
+                    process(Collections.singletonList(event));
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            if (waiting) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<FulfilmentEvent> batch = new ArrayList<>(batchSize);
+            while (running || buffer.size() > 0) {
+                if (buffer.drainTo(batch, batchSize) > 0) {
+                    process(batch);
+                    batch.clear();
+                    continue;
+                }
+                waiting = true;
+                // Re-check after announcing, so a publish that missed the flag is not left waiting
+                if (running && buffer.size() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                waiting = false;
+            }
+        }
+
+        private void process(List<FulfilmentEvent> batch) {
+            batchSizes.record(batch.size());
+            boolean ok = true;
+            for (FulfilmentHandler handler : handlers) {
+                try {
+                    handler.handle(batch);
+                } catch (RuntimeException e) {
+                    ok = false;
+                    log.error("Fulfilment handler {} failed for {} {} orders", handler.getClass().getSimpleName(),
+                            batch.size(), status, e);
+                }
+            }
+            (ok ? handled : failed).increment(batch.size());
+            long now = System.nanoTime();
+            for (FulfilmentEvent event : batch) {
+                latency.record(now - event.getEnqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.service;
+
+/**
+ * Thrown when an {@code Idempotency-Key} is sent again with a different
+ * request body than the one it was first used with.
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyReuseException(String key) {
+        super("Idempotency-Key " + key + " was already used with a different request");
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.IdempotencyKey;
+import com.ecommerce.entity.IdempotencyKeyId;
+import com.ecommerce.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs an order-creating action at most once per user and
+ * {@code Idempotency-Key}. Keys are scoped to the user, so one user's key
+ * never returns another user's order, and each key remembers a hash of its
+ * request: reusing a key with a different request is rejected rather than
+ * answered with the first request's order.
+ * <p>
+ * Recent keys live in a bounded, TTL-evicted map of futures holding the
+ * created order's ID: a retry that arrives while the first request is
+ * still running waits on its future instead of placing the order again,
+ * and a retry shortly after gets the ID from memory. Behind it, every key
+ * is recorded in {@code idempotency_keys} in the same transaction as its
+ * order, which covers retries after eviction, restarts and other
+ * instances; the primary key makes a concurrent duplicate on another
+ * instance fail and roll back. Failed actions are not remembered, so the
+ * client may retry them.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @Value("${ecommerce.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    private final Cache<IdempotencyKeyId, Pending> recent;
+
+    private final Counter executed;
+    private final Counter joined;
+    private final Counter replayed;
+    private final Counter mismatched;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${ecommerce.idempotency.cache-max-entries:100000}") long maxEntries,
+                            @Value("${ecommerce.idempotency.cache-ttl-minutes:10}") long ttlMinutes) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+        this.executed = meterRegistry.counter("ecommerce.idempotency.requests", "outcome", "executed");
+        this.joined = meterRegistry.counter("ecommerce.idempotency.requests", "outcome", "joined");
+        this.replayed = meterRegistry.counter("ecommerce.idempotency.requests", "outcome", "replayed");
+        this.mismatched = meterRegistry.counter("ecommerce.idempotency.requests", "outcome", "mismatched");
+    }
+
+    /**
+     * Return the order ID recorded for {@code key} of this user, running
+     * {@code action} to create the order only if there is none. The action
+     * must call {@link #record} in the transaction that creates the order.
+     *
+     * @param requestHash {@link #hash} of the request; a key reused with a different one is rejected
+     * @throws IllegalArgumentException      if the key is blank or too long, or there is no user
+     * @throws IdempotencyKeyReuseException if the key was used with a different request
+     */
+    public Long execute(Long userId, String key, String requestHash, Supplier<Long> action) {
+        if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("An order with an Idempotency-Key needs a user");
+        }
+        IdempotencyKeyId id = new IdempotencyKeyId(userId, key);
+        Pending mine = new Pending(requestHash);
+        Pending existing = recent.asMap().putIfAbsent(id, mine);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash, requestHash, key);
+            (existing.orderId.isDone() ? replayed : joined).increment();
+            return await(existing.orderId);
+        }
+
+        try {
+            Long orderId = lookup(id, requestHash);
+            if (orderId != null) {
+                replayed.increment();
+            } else {
+                executed.increment();
+                try {
+                    orderId = action.get();
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance committed the same key first
+                    orderId = lookup(id, requestHash);
+                    if (orderId == null) {
+                        throw e;
+                    }
+                }
+            }
+            mine.orderId.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            // Waiting duplicates get the same failure; later retries run again
+            mine.orderId.completeExceptionally(e);
+            recent.asMap().remove(id, mine);
+            throw e;
+        }
+    }
+
+    /**
+     * Record that {@code key} of this user created {@code orderId}. Flushes
+     * immediately so a duplicate key fails here, inside the caller's
+     * transaction.
+     */
+    public void record(Long userId, String key, String requestHash, Long orderId) {
+        repository.saveAndFlush(new IdempotencyKey(userId, key, requestHash, orderId));
+    }
+
+    /**
+     * Hex SHA-256 of a request body, for comparing retries with the
+     * original request.
+     */
+    public static String hash(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Delete keys older than {@code ecommerce.idempotency.retention-hours}.
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Long lookup(IdempotencyKeyId id, String requestHash) {
+        IdempotencyKey recorded = repository.findById(id).orElse(null);
+        if (recorded == null) {
+            return null;
+        }
+        checkSameRequest(recorded.getRequestHash(), requestHash, id.getKey());
+        return recorded.getOrderId();
+    }
+
+    private void checkSameRequest(String recordedHash, String requestHash, String key) {
+        if (!recordedHash.equals(requestHash)) {
+            mismatched.increment();
+            throw new IdempotencyKeyReuseException(key);
+        }
+    }
+
+    private static Long await(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A key's request hash and the order it created, or will create.
+     */
+    private static final class Pending {
+
+        final String requestHash;
+        final CompletableFuture<Long> orderId = new CompletableFuture<>();
+
+        Pending(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
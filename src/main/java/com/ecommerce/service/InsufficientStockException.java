@@ -0,0 +1,27 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.StockShortage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when an order asks for more units of one or more products than are
+ * in stock. Carries one {@link StockShortage} per short product.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(List<StockShortage> shortages) {
+        super("Insufficient stock for " + shortages.size() + " product(s)");
+        this.shortages = Collections.unmodifiableList(new ArrayList<>(shortages));
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
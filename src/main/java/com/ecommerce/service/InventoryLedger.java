@@ -0,0 +1,361 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.StockShortage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock reservations in front of {@code products.stock_quantity}
+ * ({@code ecommerce.inventory.mode=ledger}).
+ * <p>
+ * Each product has an atomic counter of units still available; orders
+ * reserve against it with a compare-and-set loop, so checkout never waits
+ * on a product row lock. Order lines are written with
+ * {@code stock_applied = false}, and a scheduled flush takes all committed
+ * unapplied lines, subtracts their summed quantity per product in one batch
+ * and marks them applied, all in one transaction. Because the pending
+ * deltas live in {@code order_items} rather than in memory, a crash loses
+ * nothing: on startup the ledger flushes whatever is still unapplied before
+ * taking reservations.
+ * <p>
+ * Counters are loaded lazily as
+ * {@code stock_quantity - unapplied - in flight}, under one of a fixed set
+ * of striped locks, which also keeps loads and resyncs of the same product
+ * from interleaving.
+ */
+@Service
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String AVAILABLE_SQL =
+            "SELECT p.stock_quantity - COALESCE((SELECT SUM(i.quantity) FROM order_items i "
+                    + "WHERE i.product_id = p.id AND i.stock_applied = false), 0) "
+                    + "FROM products p WHERE p.id = ?";
+
+    private static final String UNAPPLIED_SQL =
+            "SELECT id, product_id, quantity FROM order_items WHERE stock_applied = false ORDER BY id LIMIT ?";
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EventLog eventLog;
+
+    @Value("${ecommerce.inventory.mode:database}")
+    private String mode;
+
+    @Value("${ecommerce.inventory.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter granted;
+    private final Counter rejected;
+    private final Counter flushedLines;
+    private final Timer flushTimer;
+
+    public InventoryLedger(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.granted = meterRegistry.counter("ecommerce.inventory.reservations", "outcome", "granted");
+        this.rejected = meterRegistry.counter("ecommerce.inventory.reservations", "outcome", "rejected");
+        this.flushedLines = meterRegistry.counter("ecommerce.inventory.flushed.lines");
+        this.flushTimer = meterRegistry.timer("ecommerce.inventory.flush");
+    }
+
+    public boolean isEnabled() {
+        return "ledger".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Apply order lines left unapplied by a previous run before any
+     * reservation is granted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!isEnabled()) {
+            return;
+        }
+        int lines = 0;
+        int flushed;
+        do {
+            flushed = flush();
+            lines += flushed;
+        } while (flushed > 0);
+        available.clear();
+        log.info("Inventory ledger reconciled {} unapplied order lines", lines);
+    }
+
+    /**
+     * Reserve stock for an order line. Must be called inside the order's
+     * transaction: the reservation is released again if it rolls back.
+     *
+     * @return true if granted, false if fewer than {@code quantity} units are available
+     */
+    public boolean reserve(Long productId, int quantity) {
+        return reserve(Collections.singletonMap(productId, quantity)).isEmpty();
+    }
+
+    /**
+     * Reserve several products at once, all or nothing: if any product is
+     * short, whatever was already taken for this call is put back. Must be
+     * called inside the order's transaction: the reservation is released
+     * again if it rolls back.
+     *
+     * @param quantities units to reserve per product ID
+     * @return one shortage per product that did not have enough; empty if everything was reserved
+     */
+    public List<StockShortage> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        List<StockShortage> shortages = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            if (take(entry.getKey(), entry.getValue())) {
+                taken.put(entry.getKey(), entry.getValue());
+            } else {
+                shortages.add(new StockShortage(
+                        entry.getKey(), entry.getValue(), available(entry.getKey())));
+            }
+        }
+        if (!shortages.isEmpty()) {
+            for (Map.Entry<Long, Integer> entry : taken.entrySet()) {
+                putBack(entry.getKey(), entry.getValue());
+            }
+            rejected.increment();
+            return shortages;
+        }
+
+        granted.increment();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (Map.Entry<Long, Integer> entry : taken.entrySet()) {
+                    if (status == STATUS_COMMITTED) {
+                        // Now counted as an unapplied order line instead
+                        inFlight(entry.getKey()).addAndGet(-entry.getValue());
+                    } else {
+                        putBack(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        });
+        return shortages;
+    }
+
+    /**
+     * Take units from a product's counter, counting them as in flight.
+     */
+    private boolean take(Long productId, int quantity) {
+        AtomicInteger pending = inFlight(productId);
+        AtomicInteger counter;
+        for (;;) {
+            counter = counter(productId);
+            // Count the reservation as in flight before taking it, so a reload that
+            // replaces this counter from now on already leaves these units out
+            pending.addAndGet(quantity);
+            if (available.get(productId) == counter) {
+                break;
+            }
+            pending.addAndGet(-quantity);
+        }
+        for (;;) {
+            int current = counter.get();
+            if (current < quantity) {
+                pending.addAndGet(-quantity);
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Undo {@link #take}: return the units to the current counter and stop
+     * counting them as in flight.
+     */
+    private void putBack(Long productId, int quantity) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+        }
+        inFlight(productId).addAndGet(-quantity);
+    }
+
+    private AtomicInteger inFlight(Long productId) {
+        return inFlight.computeIfAbsent(productId, id -> new AtomicInteger());
+    }
+
+    /**
+     * Units currently available for reservation.
+     */
+    public int available(Long productId) {
+        return counter(productId).get();
+    }
+
+    /**
+     * Drop the counter so it is reloaded from the database on next use.
+     * Called when a product's stock is set directly.
+     */
+    public void resync(Long productId) {
+        ReentrantLock lock = stripe(productId);
+        lock.lock();
+        try {
+            available.remove(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write committed, unapplied order lines to {@code products.stock_quantity}.
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.inventory.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        if (isEnabled()) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (isEnabled()) {
+            flush();
+        }
+    }
+
+    /**
+     * Apply up to {@code flush-batch-size} unapplied order lines in one
+     * transaction.
+     *
+     * @return number of order lines applied
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            long start = System.nanoTime();
+            Map<Long, Integer> deltas = new LinkedHashMap<>();
+            Integer lines = transactionTemplate.execute(status -> {
+                List<Object[]> itemIds = new ArrayList<>();
+                jdbcTemplate.query(UNAPPLIED_SQL, rs -> {
+                    itemIds.add(new Object[]{rs.getLong(1)});
+                    deltas.merge(rs.getLong(2), rs.getInt(3), Integer::sum);
+                }, flushBatchSize);
+                if (itemIds.isEmpty()) {
+                    return 0;
+                }
+
+                List<Object[]> updates = new ArrayList<>(deltas.size());
+                for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+                    updates.add(new Object[]{delta.getValue(), delta.getKey(), delta.getValue()});
+                    eventLog.stockDecremented(delta.getKey(), delta.getValue());
+                }
+                int[] updated = jdbcTemplate.batchUpdate(
+                        "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP "
+                                + "WHERE id = ? AND stock_quantity >= ?",
+                        updates);
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        // Rolls the whole flush back; the lines stay unapplied until this is looked into
+                        throw new IllegalStateException("Flushing " + updates.get(i)[0]
+                                + " units would take the stock of product " + updates.get(i)[1] + " below zero");
+                    }
+                }
+                List<Object[]> depleted = new ArrayList<>(deltas.size());
+                for (Long productId : deltas.keySet()) {
+                    depleted.add(new Object[]{productId});
+                }
+                jdbcTemplate.batchUpdate(
+                        "UPDATE products SET status = 'OUT_OF_STOCK' WHERE id = ? AND stock_quantity <= 0",
+                        depleted);
+                jdbcTemplate.batchUpdate("UPDATE order_items SET stock_applied = true WHERE id = ?", itemIds);
+                return itemIds.size();
+            });
+            if (lines > 0) {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                flushedLines.increment(lines);
+                productService.refreshStockStats(deltas.keySet());
+                log.debug("Flushed {} order lines across {} products", lines, deltas.size());
+            }
+            return lines;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        ReentrantLock lock = stripe(productId);
+        lock.lock();
+        try {
+            counter = available.get(productId);
+            if (counter == null) {
+                counter = new AtomicInteger(load(productId));
+                available.put(productId, counter);
+            }
+            return counter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int load(Long productId) {
+        // Read in-flight units before the query: a reservation committing in between then
+        // counts both as in flight and as an unapplied line, erring low rather than overselling
+        AtomicInteger pending = inFlight.get(productId);
+        int inFlightUnits = pending != null ? pending.get() : 0;
+        List<Integer> stock = jdbcTemplate.queryForList(AVAILABLE_SQL, Integer.class, productId);
+        if (stock.isEmpty() || stock.get(0) == null) {
+            throw new RuntimeException("Product not found");
+        }
+        return stock.get(0) - inFlightUnits;
+    }
+
+    private ReentrantLock stripe(Long productId) {
+        return stripes[(Long.hashCode(productId) & 0x7fffffff) % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque, URL-safe continuation
+ * tokens. A token is just the list of values needed to seek past the last
+ * row of a page; clients should treat it as an opaque string.
+ */
+final class KeysetCursor {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(String... parts) {
+        String joined = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or does not have the expected number of parts
+     */
+    static String[] decode(String token, int expectedParts) {
+        String joined;
+        try {
+            joined = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = joined.split(SEPARATOR, -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ArchiveResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves closed orders out of the hot {@code orders} / {@code order_items}
+ * tables into {@code orders_archive} / {@code order_items_archive}.
+ * <p>
+ * Orders qualify when they are {@code DELIVERED} or {@code CANCELLED},
+ * were placed before the cutoff and have no order lines still waiting for
+ * the inventory ledger. They are moved in chunks of
+ * {@code ecommerce.archive.chunk-size}, walking the primary key. Each
+ * chunk is its own short transaction: lock the chunk's order rows, copy
+ * orders and items with {@code INSERT ... SELECT}, then delete them from
+ * the hot tables. Between chunks the archiver pauses for
+ * {@code pause-ms}, so checkout traffic never waits on more than one
+ * chunk's row locks. Archived orders are still counted by
+ * {@link SalesAnalytics} and found by
+ * {@link OrderService#getOrderById(Long)}.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final String CLOSED = "o.status IN ('DELIVERED', 'CANCELLED')";
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT o.id FROM orders o WHERE " + CLOSED + " AND o.order_date < :cutoff AND o.id > :afterId "
+                    + "AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id AND i.stock_applied = false) "
+                    + "ORDER BY o.id LIMIT :limit";
+
+    /** Re-checks the status under the row lock; a concurrent change wins. */
+    private static final String LOCK_SQL =
+            "SELECT o.id FROM orders o WHERE o.id IN (:ids) AND " + CLOSED + " FOR UPDATE";
+
+    private static final String COPY_ORDERS_SQL =
+            "INSERT INTO orders_archive (id, user_id, order_date, status, shipping_address, billing_address, "
+                    + "total_price, created_at, updated_at, archived_at) "
+                    + "SELECT id, user_id, order_date, status, shipping_address, billing_address, "
+                    + "total_price, created_at, updated_at, CURRENT_TIMESTAMP FROM orders WHERE id IN (:ids)";
+
+    private static final String COPY_ITEMS_SQL =
+            "INSERT INTO order_items_archive (id, order_id, product_id, quantity, price) "
+                    + "SELECT id, order_id, product_id, quantity, price FROM order_items WHERE order_id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${ecommerce.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ecommerce.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${ecommerce.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ecommerce.archive.pause-ms:50}")
+    private long pauseMillis;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Counter archivedOrders;
+
+    public OrderArchiveService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedOrders = meterRegistry.counter("ecommerce.archive.orders");
+    }
+
+    /**
+     * Archive closed orders older than {@code ecommerce.archive.retention-days}.
+     */
+    @Scheduled(cron = "${ecommerce.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveOlderThan(retentionDays);
+        }
+    }
+
+    /**
+     * Archive closed orders placed more than {@code days} days ago.
+     *
+     * @throws IllegalArgumentException if days is negative
+     * @throws IllegalStateException    if an archival run is already in progress
+     */
+    public ArchiveResult archiveOlderThan(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Order archival is already running");
+        }
+        try {
+            return archive(LocalDateTime.now().minusDays(days));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private ArchiveResult archive(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        ArchiveResult result = new ArchiveResult(cutoff);
+        long afterId = 0;
+        for (;;) {
+            List<Long> candidates = jdbcTemplate.queryForList(SELECT_CHUNK_SQL, new MapSqlParameterSource()
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("afterId", afterId)
+                    .addValue("limit", chunkSize), Long.class);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1);
+
+            int[] moved = transactionTemplate.execute(status -> moveChunk(candidates));
+            result.setOrders(result.getOrders() + moved[0]);
+            result.setItems(result.getItems() + moved[1]);
+            result.setChunks(result.getChunks() + 1);
+            archivedOrders.increment(moved[0]);
+            if (candidates.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        if (result.getOrders() > 0) {
+            log.info("Archived {} orders ({} items) placed before {} in {} chunks, {} ms", result.getOrders(),
+                    result.getItems(), cutoff, result.getChunks(), result.getElapsedMillis());
+        }
+        return result;
+    }
+
+    /**
+     * @return orders and items moved
+     */
+    private int[] moveChunk(List<Long> candidates) {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, new MapSqlParameterSource("ids", candidates), Long.class);
+        if (ids.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        int orders = jdbcTemplate.update(COPY_ORDERS_SQL, params);
+        int items = jdbcTemplate.update(COPY_ITEMS_SQL, params);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", params);
+        return new int[]{orders, items};
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
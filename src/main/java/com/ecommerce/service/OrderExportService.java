@@ -0,0 +1,524 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportProgress;
+import com.ecommerce.entity.Order;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams orders joined with their lines, for accounting exports. CSV has
+ * one line per order line with the order columns repeated; NDJSON has one
+ * order per line with its lines nested. Rows come from a single
+ * forward-only query (live and, optionally, archived orders in one
+ * {@code UNION ALL}, so an order being archived meanwhile is seen exactly
+ * once) with a bounded fetch size and are written straight to the output,
+ * optionally through gzip, so memory use does not grow with the export.
+ * <p>
+ * Running and recently finished exports are listed by {@link #progress()}
+ * with their row counts and throughput, and long exports log progress every
+ * {@code ecommerce.export.progress-interval-rows} rows.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final String LIVE_SELECT =
+            "SELECT o.id AS order_id, o.order_date, o.status, o.user_id, u.username, o.total_price, "
+                    + "o.shipping_address, o.billing_address, i.id AS item_id, i.product_id, "
+                    + "p.name AS product_name, i.quantity, i.price "
+                    + "FROM orders o LEFT JOIN users u ON u.id = o.user_id "
+                    + "LEFT JOIN order_items i ON i.order_id = o.id "
+                    + "LEFT JOIN products p ON p.id = i.product_id";
+
+    private static final String ARCHIVED_SELECT =
+            "SELECT o.id AS order_id, o.order_date, o.status, o.user_id, u.username, o.total_price, "
+                    + "o.shipping_address, o.billing_address, i.id AS item_id, i.product_id, "
+                    + "p.name AS product_name, i.quantity, i.price "
+                    + "FROM orders_archive o LEFT JOIN users u ON u.id = o.user_id "
+                    + "LEFT JOIN order_items_archive i ON i.order_id = o.id "
+                    + "LEFT JOIN products p ON p.id = i.product_id";
+
+    private static final String[] CSV_HEADER = {
+            "order_id", "order_date", "status", "user_id", "username", "order_total",
+            "shipping_address", "billing_address", "item_id", "product_id", "product_name",
+            "quantity", "unit_price"
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int RECENT_EXPORTS = 20;
+
+    /**
+     * Output format of an export.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ecommerce.export.progress-interval-rows:100000}")
+    private long progressInterval;
+
+    private final Map<String, Export> running = new ConcurrentHashMap<>();
+    private final Deque<Export> recent = new ConcurrentLinkedDeque<>();
+
+    public OrderExportService(DataSource dataSource,
+                              @Value("${ecommerce.export.fetch-size:500}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * ID to report an export under; pass it to {@link #export}.
+     */
+    public String newExportId() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Write every order line matching the filter to the given stream,
+     * ordered by order date and order ID.
+     *
+     * @param out destination stream; not closed by this method
+     * @return final progress of the export
+     */
+    public ExportProgress export(String id, Filter filter, Format format, boolean gzip, OutputStream out)
+            throws IOException {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = buildQuery(filter, params);
+
+        Export export = new Export(id, format, gzip);
+        running.put(id, export);
+        log.info("Order export {} started: {}{}, {} to {}, statuses {}{}", id, format, gzip ? " (gzip)" : "",
+                filter.from != null ? filter.from : "start", filter.to != null ? filter.to : "now",
+                filter.statuses.isEmpty() ? "all" : filter.statuses,
+                filter.includeArchived ? ", including archive" : "");
+
+        ExportProgress.State outcome = ExportProgress.State.FAILED;
+        try {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream target = compressed != null ? compressed : out;
+            RowWriter writer = format == Format.CSV ? new CsvWriter(target) : new NdjsonWriter(target);
+            long[] currentOrder = {Long.MIN_VALUE};
+            try {
+                jdbcTemplate.query(sql, params, rs -> {
+                    long orderId = rs.getLong("order_id");
+                    boolean newOrder = orderId != currentOrder[0];
+                    try {
+                        writer.write(rs, newOrder);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (newOrder) {
+                        currentOrder[0] = orderId;
+                        export.orders++;
+                    }
+                    // Only this thread writes the counters; readers just need a recent value
+                    long rows = ++export.rows;
+                    if (rows % progressInterval == 0) {
+                        log.info("Order export {}: {} rows, {} orders, {} rows/s",
+                                id, rows, export.orders, Math.round(export.rowsPerSecond()));
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            out.flush();
+            outcome = ExportProgress.State.COMPLETED;
+        } finally {
+            finish(export, outcome);
+        }
+        return export.snapshot();
+    }
+
+    /**
+     * Running exports followed by the most recently finished ones.
+     */
+    public List<ExportProgress> progress() {
+        List<ExportProgress> progress = new ArrayList<>();
+        for (Export export : running.values()) {
+            progress.add(export.snapshot());
+        }
+        for (Export export : recent) {
+            progress.add(export.snapshot());
+        }
+        return progress;
+    }
+
+    public Optional<ExportProgress> progress(String id) {
+        Export export = running.get(id);
+        if (export == null) {
+            export = recent.stream().filter(e -> e.id.equals(id)).findFirst().orElse(null);
+        }
+        return Optional.ofNullable(export).map(Export::snapshot);
+    }
+
+    private void finish(Export export, ExportProgress.State outcome) {
+        export.endNanos = System.nanoTime();
+        export.state = outcome;
+        recent.addFirst(export);
+        running.remove(export.id);
+        while (recent.size() > RECENT_EXPORTS) {
+            recent.pollLast();
+        }
+
+        String format = export.format.name().toLowerCase();
+        meterRegistry.counter("ecommerce.export.orders.rows", "format", format).increment(export.rows);
+        meterRegistry.timer("ecommerce.export.orders", "format", format, "outcome", outcome.name().toLowerCase())
+                .record(export.endNanos - export.startNanos, TimeUnit.NANOSECONDS);
+        if (outcome == ExportProgress.State.COMPLETED) {
+            log.info("Order export {} completed: {} rows, {} orders in {} ms ({} rows/s)", export.id,
+                    export.rows, export.orders, export.elapsedMillis(), Math.round(export.rowsPerSecond()));
+        } else {
+            log.warn("Order export {} failed after {} rows in {} ms", export.id, export.rows, export.elapsedMillis());
+        }
+    }
+
+    private static String buildQuery(Filter filter, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.from != null) {
+            conditions.add("o.order_date >= :from");
+            params.addValue("from", Timestamp.valueOf(filter.from.atStartOfDay()));
+        }
+        if (filter.to != null) {
+            conditions.add("o.order_date < :to");
+            params.addValue("to", Timestamp.valueOf(filter.to.plusDays(1).atStartOfDay()));
+        }
+        if (!filter.statuses.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (Order.OrderStatus status : filter.statuses) {
+                names.add(status.name());
+            }
+            conditions.add("o.status IN (:statuses)");
+            params.addValue("statuses", names);
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        StringBuilder sql = new StringBuilder(LIVE_SELECT).append(where);
+        if (filter.includeArchived) {
+            sql.append(" UNION ALL ").append(ARCHIVED_SELECT).append(where);
+        }
+        return sql.append(" ORDER BY order_date, order_id, item_id").toString();
+    }
+
+    /**
+     * Which orders to export. Dates are inclusive and either may be left
+     * open; no statuses means all of them.
+     */
+    public static class Filter {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Set<Order.OrderStatus> statuses;
+        private final boolean includeArchived;
+
+        public Filter(LocalDate from, LocalDate to, Collection<Order.OrderStatus> statuses, boolean includeArchived) {
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("from must not be after to");
+            }
+            this.from = from;
+            this.to = to;
+            this.statuses = statuses == null || statuses.isEmpty()
+                    ? EnumSet.noneOf(Order.OrderStatus.class) : EnumSet.copyOf(statuses);
+            this.includeArchived = includeArchived;
+        }
+    }
+
+    /**
+     * Progress of one export. Counters are written by the exporting thread
+     * only.
+     */
+    private static final class Export {
+
+        final String id;
+        final Format format;
+        final boolean gzip;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        volatile long rows;
+        volatile long orders;
+        volatile long endNanos;
+        volatile ExportProgress.State state = ExportProgress.State.RUNNING;
+
+        Export(String id, Format format, boolean gzip) {
+            this.id = id;
+            this.format = format;
+            this.gzip = gzip;
+        }
+
+        long elapsedNanos() {
+            long end = endNanos;
+            return (end != 0 ? end : System.nanoTime()) - startNanos;
+        }
+
+        long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos());
+        }
+
+        double rowsPerSecond() {
+            long elapsed = elapsedNanos();
+            return elapsed > 0 ? rows * 1e9 / elapsed : 0;
+        }
+
+        ExportProgress snapshot() {
+            ExportProgress progress = new ExportProgress();
+            progress.setId(id);
+            progress.setFormat(format.name());
+            progress.setGzip(gzip);
+            progress.setState(state);
+            progress.setStartedAt(startedAt);
+            progress.setRows(rows);
+            progress.setOrders(orders);
+            progress.setElapsedMillis(elapsedMillis());
+            progress.setRowsPerSecond(Math.round(rowsPerSecond() * 10) / 10.0);
+            return progress;
+        }
+    }
+
+    /**
+     * Writes one result row; rows of an order arrive consecutively, the
+     * first one flagged with {@code newOrder}.
+     */
+    private interface RowWriter {
+
+        void write(ResultSet rs, boolean newOrder) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            for (int i = 0; i < CSV_HEADER.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(CSV_HEADER[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs, boolean newOrder) throws IOException, SQLException {
+            writer.write(Long.toString(rs.getLong("order_id")));
+            writer.write(',');
+            writeTimestamp(rs.getTimestamp("order_date"));
+            writer.write(',');
+            writeText(rs.getString("status"));
+            writer.write(',');
+            writeObject(rs.getObject("user_id"));
+            writer.write(',');
+            writeText(rs.getString("username"));
+            writer.write(',');
+            writeObject(rs.getBigDecimal("total_price"));
+            writer.write(',');
+            writeText(rs.getString("shipping_address"));
+            writer.write(',');
+            writeText(rs.getString("billing_address"));
+            writer.write(',');
+            writeObject(rs.getObject("item_id"));
+            writer.write(',');
+            writeObject(rs.getObject("product_id"));
+            writer.write(',');
+            writeText(rs.getString("product_name"));
+            writer.write(',');
+            writeObject(rs.getObject("quantity"));
+            writer.write(',');
+            writeObject(rs.getBigDecimal("price"));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeObject(Object value) throws IOException {
+            if (value instanceof BigDecimal) {
+                writer.write(((BigDecimal) value).toPlainString());
+            } else if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeTimestamp(Timestamp value) throws IOException {
+            if (value != null) {
+                writer.write(value.toLocalDateTime().toString());
+            }
+        }
+
+        /**
+         * RFC 4180 quoting: only fields with a delimiter, quote or line break
+         * are quoted, with embedded quotes doubled.
+         */
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private boolean orderOpen;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are terminated explicitly; suppress Jackson's default space between root values
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void write(ResultSet rs, boolean newOrder) throws IOException, SQLException {
+            if (newOrder) {
+                closeOrder();
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong("order_id"));
+                Timestamp orderDate = rs.getTimestamp("order_date");
+                if (orderDate == null) {
+                    generator.writeNullField("orderDate");
+                } else {
+                    generator.writeStringField("orderDate", orderDate.toLocalDateTime().toString());
+                }
+                generator.writeStringField("status", rs.getString("status"));
+                writeLong("userId", rs, "user_id");
+                generator.writeStringField("username", rs.getString("username"));
+                writeDecimal("totalPrice", rs.getBigDecimal("total_price"));
+                generator.writeStringField("shippingAddress", rs.getString("shipping_address"));
+                generator.writeStringField("billingAddress", rs.getString("billing_address"));
+                generator.writeArrayFieldStart("items");
+                orderOpen = true;
+            }
+            rs.getLong("item_id");
+            if (rs.wasNull()) {
+                // Order without lines
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("item_id"));
+            writeLong("productId", rs, "product_id");
+            generator.writeStringField("productName", rs.getString("product_name"));
+            writeLong("quantity", rs, "quantity");
+            writeDecimal("price", rs.getBigDecimal("price"));
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            closeOrder();
+            generator.flush();
+        }
+
+        private void closeOrder() throws IOException {
+            if (orderOpen) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                orderOpen = false;
+            }
+        }
+
+        private void writeLong(String field, ResultSet rs, String column) throws IOException, SQLException {
+            long value = rs.getLong(column);
+            if (rs.wasNull()) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+
+        private void writeDecimal(String field, BigDecimal value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+    }
+}
@@ -1,16 +1,45 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.OrderBatchResult;
+import com.ecommerce.dto.OrderKey;
+import com.ecommerce.dto.OrderView;
+import com.ecommerce.dto.StockShortage;
+import com.ecommerce.entity.ArchivedOrder;
 import com.ecommerce.entity.Order;
 import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
 import com.ecommerce.entity.User;
+import com.ecommerce.repository.ArchivedOrderItemRepository;
+import com.ecommerce.repository.ArchivedOrderRepository;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service layer for Order entities. Encapsulates business logic for
@@ -20,15 +49,53 @@ import java.util.Optional;
 @Service
 public class OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private static final Comparator<OrderKey> NEWEST_FIRST =
+            Comparator.comparing(OrderKey::getOrderDate).thenComparing(OrderKey::getId).reversed();
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private FulfilmentPipeline fulfilmentPipeline;
+
+    @Autowired
+    private EventLog eventLog;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Value("${ecommerce.orders.batch-mode:ALL_OR_NOTHING}")
+    private OrderBatchResult.Mode defaultBatchMode;
+
+    @Value("${ecommerce.orders.batch-max-size:5000}")
+    private int batchMaxSize;
+
     /**
      * Retrieve all orders.
      *
@@ -39,13 +106,141 @@ public class OrderService {
     }
 
     /**
-     * Find a specific order by its ID.
+     * Retrieve all orders with their items as read-only views, loaded with
+     * a single joined query.
+     *
+     * @return list of all orders
+     */
+    public List<OrderView> getAllOrderViews() {
+        return OrderView.fromRows(orderRepository.findAllOrderLines());
+    }
+
+    /**
+     * Find a specific order by its ID as a read-only view, falling back to
+     * the archive for orders moved out by {@link OrderArchiveService}.
+     *
+     * @param id the order ID
+     * @return optional order view
+     */
+    public Optional<OrderView> getOrderViewById(Long id) {
+        List<OrderView> views = OrderView.fromRows(orderRepository.findOrderLinesByOrderId(id));
+        if (views.isEmpty()) {
+            views = OrderView.fromRows(archivedOrderRepository.findOrderLinesByOrderId(id));
+        }
+        return views.isEmpty() ? Optional.<OrderView>empty() : Optional.of(views.get(0));
+    }
+
+    /**
+     * Retrieve all orders placed by a specific user ID as read-only views,
+     * including those moved to the archive, ordered by ID.
+     *
+     * @param userId the ID of the user
+     * @return list of order views for the user
+     */
+    public List<OrderView> getOrderViewsByUserId(Long userId) {
+        List<OrderView> views = OrderView.fromRows(orderRepository.findOrderLinesByUserId(userId));
+        views.addAll(OrderView.fromRows(archivedOrderRepository.findOrderLinesByUserId(userId)));
+        views.sort(Comparator.comparing(OrderView::getId));
+        return views;
+    }
+
+    /**
+     * One page of a user's order history, newest first, with items, live
+     * and archived orders together. Pages seek on (orderDate, id) rather
+     * than using offsets: each table is asked for its next {@code size + 1}
+     * keys, the two lists are merged, and only the lines of the orders on
+     * the page are loaded, so a page takes at most four queries however
+     * many orders and items it has.
+     *
+     * @param userId the ID of the user
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @param size   orders per page
+     * @return the page of order views
+     * @throws IllegalArgumentException if the cursor is malformed or the size is out of range
+     */
+    public CursorPage<OrderView> getOrderHistory(Long userId, String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderKey> live;
+        List<OrderKey> archived;
+        if (cursor == null || cursor.isEmpty()) {
+            live = orderRepository.findOrderKeysByUserId(userId, limit);
+            archived = archivedOrderRepository.findOrderKeysByUserId(userId, limit);
+        } else {
+            String[] parts = KeysetCursor.decode(cursor, 2);
+            LocalDateTime beforeDate;
+            Long beforeId;
+            try {
+                beforeDate = LocalDateTime.parse(parts[0]);
+                beforeId = Long.valueOf(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            live = orderRepository.findOrderKeysByUserIdBefore(userId, beforeDate, beforeId, limit);
+            archived = archivedOrderRepository.findOrderKeysByUserIdBefore(userId, beforeDate, beforeId, limit);
+        }
+
+        // An order being archived right now can show up in both lists; keep one
+        Map<Long, OrderKey> merged = new HashMap<>();
+        Set<Long> archivedIds = new HashSet<>();
+        for (OrderKey key : archived) {
+            merged.put(key.getId(), key);
+            archivedIds.add(key.getId());
+        }
+        for (OrderKey key : live) {
+            if (merged.put(key.getId(), key) != null) {
+                archivedIds.remove(key.getId());
+            }
+        }
+        List<OrderKey> keys = new ArrayList<>(merged.values());
+        keys.sort(NEWEST_FIRST);
+
+        boolean hasNext = keys.size() > size;
+        if (hasNext) {
+            keys = keys.subList(0, size);
+        }
+        List<Long> liveIds = new ArrayList<>();
+        List<Long> pageArchivedIds = new ArrayList<>();
+        for (OrderKey key : keys) {
+            if (archivedIds.contains(key.getId())) {
+                pageArchivedIds.add(key.getId());
+            } else {
+                liveIds.add(key.getId());
+            }
+        }
+        List<OrderView> content = new ArrayList<>(keys.size());
+        if (!liveIds.isEmpty()) {
+            content.addAll(OrderView.fromRows(orderRepository.findOrderLinesByOrderIds(liveIds)));
+        }
+        if (!pageArchivedIds.isEmpty()) {
+            content.addAll(OrderView.fromRows(archivedOrderRepository.findOrderLinesByOrderIds(pageArchivedIds)));
+        }
+        content.sort(Comparator.comparing(OrderView::getOrderDate).thenComparing(OrderView::getId).reversed());
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderKey last = keys.get(keys.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getOrderDate().toString(), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(content, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Find a specific order by its ID. Archived orders are returned as a
+     * detached, read-only copy (see {@link ArchivedOrder#toOrder}).
      *
      * @param id the order ID
      * @return optional order
      */
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        Optional<Order> order = orderRepository.findById(id);
+        if (order.isPresent()) {
+            return order;
+        }
+        return archivedOrderRepository.findById(id)
+                .map(archived -> archived.toOrder(archivedOrderItemRepository.findByOrderIdOrderById(id)));
     }
 
     /**
@@ -69,33 +264,341 @@ public class OrderService {
     }
 
     /**
-     * Create a new order. This method calculates the total price based on
-     * the associated order items and persists both the order and items.
-     * Also updates product stock quantities.
+     * Create a new order. All products in the order are loaded with one
+     * query and every line is priced from the catalog; prices sent by the
+     * client are ignored. Stock for every product is taken in the same
+     * transaction as the order insert, so either the whole order is placed
+     * or nothing changes.
      *
      * @param order the order to create
      * @return the created order
+     * @throws InsufficientStockException if any product does not have enough stock
      */
+    @Transactional
     public Order createOrder(Order order) {
-        // Calculate total price based on items
-        BigDecimal total = BigDecimal.ZERO;
-        if (order.getItems() != null) {
-            for (OrderItem item : order.getItems()) {
-                // link each item back to the order
-                item.setOrder(order);
-                if (item.getPrice() != null && item.getQuantity() != null) {
-                    total = total.add(item.getPrice().multiply(new BigDecimal(item.getQuantity())));
+        Set<Long> productIds = validateLines(order);
+        Map<Long, Integer> quantities = priceOrder(order, productService.getProductsByIds(productIds));
+        List<StockShortage> shortages = takeStock(quantities);
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
+        // Save the order first to generate an ID (cascade will save items)
+        Order saved = orderRepository.save(order);
+        salesAnalytics.orderPlaced(saved);
+        eventLog.orderPlaced(saved);
+        fulfilmentPipeline.publish(saved.getId(), null, saved.getStatus());
+        return saved;
+    }
+
+    /**
+     * Create an order at most once per user and idempotency key: a retry
+     * with the same key returns the order the first request created, and a
+     * retry that races the first request waits for its outcome.
+     *
+     * @param order          the order to create
+     * @param idempotencyKey the client's {@code Idempotency-Key}
+     * @param requestHash    {@link IdempotencyStore#hash} of the request body
+     * @return the ID of the order created for this key, now or earlier
+     * @throws InsufficientStockException   if any product does not have enough stock
+     * @throws IdempotencyKeyReuseException if the key was already used with a different request
+     */
+    public Long createOrder(Order order, String idempotencyKey, String requestHash) {
+        Long userId = order.getUser() != null ? order.getUser().getId() : null;
+        return idempotencyStore.execute(userId, idempotencyKey, requestHash, () ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    Order created = createOrder(order);
+                    idempotencyStore.record(userId, idempotencyKey, requestHash, created.getId());
+                    return created.getId();
+                }));
+    }
+
+    /**
+     * Place many orders in one transaction, e.g. a marketplace feed. The
+     * products of the whole batch are loaded with one query, stock is taken
+     * per product rather than per order, and orders and items are inserted
+     * with JDBC batching.
+     * <p>
+     * {@code ALL_OR_NOTHING} places every order or none: the batch's summed
+     * quantities are taken in one go and any invalid or unfillable order
+     * rolls everything back. {@code BEST_EFFORT} places orders in submission
+     * order while stock lasts (from row-locked stock, or one ledger
+     * reservation per order) and rejects the rest individually.
+     *
+     * @param orders the orders to place
+     * @param mode   batch semantics, or null for {@code ecommerce.orders.batch-mode}
+     * @return one result per submitted order, in submission order
+     * @throws IllegalArgumentException if the batch is larger than {@code ecommerce.orders.batch-max-size}
+     */
+    public OrderBatchResult createOrders(List<Order> orders, OrderBatchResult.Mode mode) {
+        if (orders.size() > batchMaxSize) {
+            throw new IllegalArgumentException("At most " + batchMaxSize + " orders per batch");
+        }
+        OrderBatchResult.Mode batchMode = mode != null ? mode : defaultBatchMode;
+        long start = System.nanoTime();
+        OrderBatchResult result = new TransactionTemplate(transactionManager).execute(status -> {
+            OrderBatchResult batch = placeOrders(orders, batchMode);
+            if (batchMode == OrderBatchResult.Mode.ALL_OR_NOTHING && batch.getRejected() > 0) {
+                status.setRollbackOnly();
+            }
+            return batch;
+        });
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private OrderBatchResult placeOrders(List<Order> orders, OrderBatchResult.Mode mode) {
+        OrderBatchResult batch = new OrderBatchResult(mode);
+        batch.setTotal(orders.size());
+        List<OrderBatchResult.OrderResult> results = batch.getOrders();
+
+        Map<Integer, Set<Long>> lines = new LinkedHashMap<>();
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            results.add(new OrderBatchResult.OrderResult(i));
+            try {
+                Set<Long> ids = validateLines(orders.get(i));
+                userIds.add(validateUser(orders.get(i)));
+                lines.put(i, ids);
+            } catch (IllegalArgumentException e) {
+                reject(results.get(i), e.getMessage(), null);
+            }
+        }
+
+        // An unknown user would only fail at the batch insert, taking every order with it
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            users.put(user.getId(), user);
+        }
+        Set<Long> productIds = new TreeSet<>();
+        List<Integer> valid = new ArrayList<>();
+        for (Map.Entry<Integer, Set<Long>> order : lines.entrySet()) {
+            Order o = orders.get(order.getKey());
+            User user = users.get(o.getUser().getId());
+            if (user == null) {
+                reject(results.get(order.getKey()), "User not found with id: " + o.getUser().getId(), null);
+                continue;
+            }
+            o.setUser(user);
+            productIds.addAll(order.getValue());
+            valid.add(order.getKey());
+        }
+
+        boolean ledger = inventoryLedger.isEnabled();
+        // Best effort allocates from the current stock, so keep it locked until commit
+        boolean allocateFromRows = mode == OrderBatchResult.Mode.BEST_EFFORT && !ledger;
+        Map<Long, Product> products = allocateFromRows
+                ? productService.lockProductsByIds(productIds)
+                : productService.getProductsByIds(productIds);
+        Map<Integer, Map<Long, Integer>> quantities = new LinkedHashMap<>();
+        for (Integer i : valid) {
+            try {
+                quantities.put(i, priceOrder(orders.get(i), products));
+            } catch (RuntimeException e) {
+                reject(results.get(i), e.getMessage(), null);
+            }
+        }
+
+        List<Integer> accepted;
+        if (mode == OrderBatchResult.Mode.ALL_OR_NOTHING) {
+            accepted = takeStockForAll(quantities, results);
+        } else if (ledger) {
+            accepted = new ArrayList<>();
+            for (Map.Entry<Integer, Map<Long, Integer>> order : quantities.entrySet()) {
+                List<StockShortage> shortages = inventoryLedger.reserve(order.getValue());
+                if (shortages.isEmpty()) {
+                    accepted.add(order.getKey());
+                } else {
+                    reject(results.get(order.getKey()), "Insufficient stock", shortages);
+                }
+            }
+        } else {
+            accepted = allocateFromLockedRows(quantities, products, results);
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Order> placed = new ArrayList<>(accepted.size());
+            for (Integer i : accepted) {
+                placed.add(orders.get(i));
+            }
+            orderRepository.saveAll(placed);
+            orderRepository.flush();
+            for (Integer i : accepted) {
+                salesAnalytics.orderPlaced(orders.get(i));
+                eventLog.orderPlaced(orders.get(i));
+                fulfilmentPipeline.publish(orders.get(i).getId(), null, orders.get(i).getStatus());
+                OrderBatchResult.OrderResult result = results.get(i);
+                result.setStatus(OrderBatchResult.Status.PLACED);
+                result.setOrderId(orders.get(i).getId());
+                result.setTotalPrice(orders.get(i).getTotalPrice());
+            }
+        }
+
+        for (OrderBatchResult.OrderResult result : results) {
+            if (result.getStatus() == OrderBatchResult.Status.PLACED) {
+                batch.setPlaced(batch.getPlaced() + 1);
+            } else if (result.getStatus() == OrderBatchResult.Status.REJECTED) {
+                batch.setRejected(batch.getRejected() + 1);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * All-or-nothing: take the summed quantities of every order at once.
+     * Returns the orders to insert, or none if any order was rejected (the
+     * caller then rolls back, which also returns any stock taken).
+     */
+    private List<Integer> takeStockForAll(Map<Integer, Map<Long, Integer>> quantities,
+                                          List<OrderBatchResult.OrderResult> results) {
+        boolean anyRejected = quantities.size() < results.size();
+        if (!anyRejected) {
+            Map<Long, Integer> total = new TreeMap<>();
+            for (Map<Long, Integer> order : quantities.values()) {
+                for (Map.Entry<Long, Integer> line : order.entrySet()) {
+                    total.merge(line.getKey(), line.getValue(), Integer::sum);
+                }
+            }
+            List<StockShortage> shortages = takeStock(total);
+            for (Map.Entry<Integer, Map<Long, Integer>> order : quantities.entrySet()) {
+                List<StockShortage> own = new ArrayList<>();
+                for (StockShortage shortage : shortages) {
+                    if (order.getValue().containsKey(shortage.getProductId())) {
+                        own.add(shortage);
+                    }
                 }
-                
-                // Update product stock quantity
-                if (item.getProduct() != null && item.getQuantity() != null) {
-                    productService.updateStockQuantity(item.getProduct().getId(), item.getQuantity());
+                if (!own.isEmpty()) {
+                    reject(results.get(order.getKey()), "Insufficient stock", own);
+                    anyRejected = true;
+                }
+            }
+        }
+        if (!anyRejected) {
+            return new ArrayList<>(quantities.keySet());
+        }
+        for (OrderBatchResult.OrderResult result : results) {
+            if (result.getStatus() == null) {
+                result.setStatus(OrderBatchResult.Status.SKIPPED);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Best effort, database mode: hand out the row-locked stock to orders in
+     * submission order, then take what was handed out with one batch.
+     */
+    private List<Integer> allocateFromLockedRows(Map<Integer, Map<Long, Integer>> quantities,
+                                                 Map<Long, Product> products,
+                                                 List<OrderBatchResult.OrderResult> results) {
+        Map<Long, Integer> remaining = new HashMap<>();
+        for (Product product : products.values()) {
+            remaining.put(product.getId(), product.getStockQuantity());
+        }
+        List<Integer> accepted = new ArrayList<>();
+        Map<Long, Integer> allocated = new TreeMap<>();
+        for (Map.Entry<Integer, Map<Long, Integer>> order : quantities.entrySet()) {
+            List<StockShortage> shortages = new ArrayList<>();
+            for (Map.Entry<Long, Integer> line : order.getValue().entrySet()) {
+                int left = remaining.get(line.getKey());
+                if (left < line.getValue()) {
+                    shortages.add(new StockShortage(line.getKey(), line.getValue(), left));
                 }
             }
+            if (!shortages.isEmpty()) {
+                reject(results.get(order.getKey()), "Insufficient stock", shortages);
+                continue;
+            }
+            for (Map.Entry<Long, Integer> line : order.getValue().entrySet()) {
+                remaining.merge(line.getKey(), -line.getValue(), Integer::sum);
+                allocated.merge(line.getKey(), line.getValue(), Integer::sum);
+            }
+            accepted.add(order.getKey());
+        }
+        if (!allocated.isEmpty() && !productService.decrementStock(allocated).isEmpty()) {
+            throw new IllegalStateException("Stock changed while its rows were locked");
+        }
+        return accepted;
+    }
+
+    private static void reject(OrderBatchResult.OrderResult result, String error, List<StockShortage> shortages) {
+        result.setStatus(OrderBatchResult.Status.REJECTED);
+        result.setError(error);
+        result.setShortages(shortages);
+    }
+
+    /**
+     * Check that the order names a user.
+     *
+     * @return the user ID
+     */
+    private static Long validateUser(Order order) {
+        if (order.getUser() == null || order.getUser().getId() == null) {
+            throw new IllegalArgumentException("An order needs a user");
+        }
+        return order.getUser().getId();
+    }
+
+    /**
+     * Check that every line names a product and a positive quantity.
+     *
+     * @return the distinct product IDs of the order
+     */
+    private static Set<Long> validateLines(Order order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one line");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getProduct() == null || item.getProduct().getId() == null
+                    || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Every order line needs a product and a positive quantity");
+            }
+            productIds.add(item.getProduct().getId());
+        }
+        return productIds;
+    }
+
+    /**
+     * Link every line to the order and its catalog product, price it from
+     * {@link Product#getPrice()} and set the order total.
+     *
+     * @return units per product ID, summed over lines and sorted by ID so
+     * stock is taken once per product in a fixed lock order
+     */
+    private Map<Long, Integer> priceOrder(Order order, Map<Long, Product> products) {
+        boolean ledger = inventoryLedger.isEnabled();
+        BigDecimal total = BigDecimal.ZERO;
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            Product product = products.get(item.getProduct().getId());
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + item.getProduct().getId());
+            }
+            // link each item back to the order
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setPrice(product.getPrice());
+            // With the ledger the stock change is written later by InventoryLedger#flush()
+            item.setStockApplied(!ledger);
+            total = total.add(product.getPrice().multiply(new BigDecimal(item.getQuantity())));
+            quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
         }
         order.setTotalPrice(total);
-        // Save the order first to generate an ID (cascade will save items)
-        return orderRepository.save(order);
+        return quantities;
+    }
+
+    /**
+     * Take the given units per product, all or nothing. In database mode this
+     * is one JDBC batch of guarded UPDATEs; with the inventory ledger enabled
+     * the units are reserved in memory. A rollback of the caller's
+     * transaction returns them in either case.
+     *
+     * @return the short products; empty if everything was taken
+     */
+    private List<StockShortage> takeStock(Map<Long, Integer> quantities) {
+        return inventoryLedger.isEnabled()
+                ? inventoryLedger.reserve(quantities)
+                : productService.decrementStock(quantities);
     }
 
     /**
@@ -105,8 +608,12 @@ public class OrderService {
      * @param status  the new status
      * @return the updated order, if found
      */
+    @Transactional
     public Optional<Order> updateOrderStatus(Long orderId, Order.OrderStatus status) {
         return orderRepository.findById(orderId).map(order -> {
+            salesAnalytics.statusChanged(orderId, order.getStatus(), status);
+            fulfilmentPipeline.publish(orderId, order.getStatus(), status);
+            eventLog.orderStatusChanged(orderId, order.getStatus(), status);
             order.setStatus(status);
             return orderRepository.save(order);
         });
@@ -117,7 +624,11 @@ public class OrderService {
      *
      * @param orderId the ID of the order to delete
      */
+    @Transactional
     public void deleteOrder(Long orderId) {
+        orderRepository.findById(orderId)
+                .ifPresent(order -> salesAnalytics.orderDeleted(orderId, order.getStatus()));
         orderRepository.deleteById(orderId);
+        eventLog.orderDeleted(orderId);
     }
 }
@@ -0,0 +1,178 @@
+package com.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sparse bitmap of product IDs used by {@link ProductFacetIndex}.
+ * IDs are split into 65,536-bit chunks and only non-empty chunks are
+ * stored, so a facet that covers a few products spread over a large ID
+ * range stays small while dense ranges cost one bit per product.
+ */
+class ProductBitmap {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_BITS) / Long.SIZE;
+
+    private final TreeMap<Integer, long[]> chunks = new TreeMap<>();
+
+    void set(int id) {
+        long[] words = chunks.computeIfAbsent(id >>> CHUNK_BITS, k -> new long[WORDS_PER_CHUNK]);
+        int bit = id & ((1 << CHUNK_BITS) - 1);
+        words[bit >>> 6] |= 1L << bit;
+    }
+
+    void clear(int id) {
+        long[] words = chunks.get(id >>> CHUNK_BITS);
+        if (words == null) {
+            return;
+        }
+        int bit = id & ((1 << CHUNK_BITS) - 1);
+        words[bit >>> 6] &= ~(1L << bit);
+        if (isEmpty(words)) {
+            chunks.remove(id >>> CHUNK_BITS);
+        }
+    }
+
+    boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    ProductBitmap copy() {
+        ProductBitmap copy = new ProductBitmap();
+        for (Map.Entry<Integer, long[]> entry : chunks.entrySet()) {
+            copy.chunks.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    void or(ProductBitmap other) {
+        for (Map.Entry<Integer, long[]> entry : other.chunks.entrySet()) {
+            long[] words = chunks.get(entry.getKey());
+            if (words == null) {
+                chunks.put(entry.getKey(), entry.getValue().clone());
+            } else {
+                long[] otherWords = entry.getValue();
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    words[i] |= otherWords[i];
+                }
+            }
+        }
+    }
+
+    void and(ProductBitmap other) {
+        Iterator<Map.Entry<Integer, long[]>> it = chunks.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, long[]> entry = it.next();
+            long[] otherWords = other.chunks.get(entry.getKey());
+            if (otherWords == null) {
+                it.remove();
+                continue;
+            }
+            long[] words = entry.getValue();
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                words[i] &= otherWords[i];
+            }
+            if (isEmpty(words)) {
+                it.remove();
+            }
+        }
+    }
+
+    ProductBitmap andNot(ProductBitmap other) {
+        ProductBitmap result = copy();
+        Iterator<Map.Entry<Integer, long[]>> it = result.chunks.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, long[]> entry = it.next();
+            long[] otherWords = other.chunks.get(entry.getKey());
+            if (otherWords == null) {
+                continue;
+            }
+            long[] words = entry.getValue();
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                words[i] &= ~otherWords[i];
+            }
+            if (isEmpty(words)) {
+                it.remove();
+            }
+        }
+        return result;
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long[] words : chunks.values()) {
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Size of the intersection with another bitmap, without materializing it.
+     */
+    int andCardinality(ProductBitmap other) {
+        int count = 0;
+        for (Map.Entry<Integer, long[]> entry : chunks.entrySet()) {
+            long[] otherWords = other.chunks.get(entry.getKey());
+            if (otherWords == null) {
+                continue;
+            }
+            long[] words = entry.getValue();
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * IDs in descending order, skipping the first {@code offset}.
+     */
+    List<Long> descendingIds(long offset, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        long skipped = 0;
+        NavigableMap<Integer, long[]> descending = chunks.descendingMap();
+        for (Map.Entry<Integer, long[]> entry : descending.entrySet()) {
+            long[] words = entry.getValue();
+            long base = (long) entry.getKey() << CHUNK_BITS;
+            for (int w = WORDS_PER_CHUNK - 1; w >= 0; w--) {
+                long word = words[w];
+                if (skipped + Long.bitCount(word) <= offset) {
+                    skipped += Long.bitCount(word);
+                    continue;
+                }
+                while (word != 0) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    word &= ~(1L << bit);
+                    if (skipped < offset) {
+                        skipped++;
+                        continue;
+                    }
+                    ids.add(base + ((long) w << 6) + bit);
+                    if (ids.size() >= limit) {
+                        return ids;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
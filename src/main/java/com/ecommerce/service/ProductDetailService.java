@@ -0,0 +1,149 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.Review;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads everything the product detail page shows. In parallel mode the
+ * product and its reviews are fetched concurrently on a small bounded pool,
+ * so page latency is the slower of the two lookups rather than their sum.
+ * Each lookup has a timeout; a missing product ends the page, while slow or
+ * failing reviews degrade to an empty list. The average rating is read from
+ * {@link Product#getRating()}, which review changes keep up to date.
+ */
+@Service
+public class ProductDetailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductDetailService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Value("${ecommerce.storefront.parallel-detail:true}")
+    private boolean parallel;
+
+    @Value("${ecommerce.storefront.detail-timeout-ms:500}")
+    private long timeoutMillis;
+
+    private final ExecutorService executor;
+
+    public ProductDetailService(MeterRegistry meterRegistry,
+                                @Value("${ecommerce.storefront.detail-pool-size:8}") int poolSize,
+                                @Value("${ecommerce.storefront.detail-queue-capacity:100}") int queueCapacity) {
+        // When the queue is full the request thread runs the lookup itself,
+        // which degrades to the sequential path instead of rejecting the page
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("product-detail-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "productDetail");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ProductDetail load(Long productId) {
+        if (!parallel) {
+            return loadSequentially(productId);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<Optional<Product>> product = executor.submit(() -> productService.getProductById(productId));
+        Future<List<Review>> reviews = executor.submit(() -> reviewService.getReviewsByProductId(productId));
+
+        Optional<Product> loaded = await(product, deadline, Optional.<Product>empty(), "product", productId);
+        if (!loaded.isPresent()) {
+            reviews.cancel(true);
+            return new ProductDetail(loaded, Collections.<Review>emptyList());
+        }
+        return new ProductDetail(loaded,
+                await(reviews, deadline, Collections.<Review>emptyList(), "reviews", productId));
+    }
+
+    private ProductDetail loadSequentially(Long productId) {
+        Optional<Product> product = call(() -> productService.getProductById(productId),
+                Optional.<Product>empty(), "product", productId);
+        if (!product.isPresent()) {
+            return new ProductDetail(product, Collections.<Review>emptyList());
+        }
+        return new ProductDetail(product, call(() -> reviewService.getReviewsByProductId(productId),
+                Collections.<Review>emptyList(), "reviews", productId));
+    }
+
+    private static <T> T await(Future<T> future, long deadline, T fallback, String what, Long productId) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Timed out loading {} for product {}", what, productId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        } catch (ExecutionException e) {
+            log.warn("Failed to load {} for product {}: {}", what, productId, e.getCause().getMessage());
+        }
+        return fallback;
+    }
+
+    private static <T> T call(Callable<T> lookup, T fallback, String what, Long productId) {
+        try {
+            return lookup.call();
+        } catch (Exception e) {
+            log.warn("Failed to load {} for product {}: {}", what, productId, e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Data for the product detail page.
+     */
+    public static class ProductDetail {
+
+        private final Optional<Product> product;
+        private final List<Review> reviews;
+
+        ProductDetail(Optional<Product> product, List<Review> reviews) {
+            this.product = product;
+            this.reviews = reviews;
+        }
+
+        public Optional<Product> getProduct() {
+            return product;
+        }
+
+        public List<Review> getReviews() {
+            return reviews;
+        }
+
+        public double getAverageRating() {
+            Double rating = product.map(Product::getRating).orElse(null);
+            return rating != null ? rating : 0.0;
+        }
+    }
+}
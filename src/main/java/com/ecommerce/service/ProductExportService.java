@@ -0,0 +1,125 @@
+package com.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams the full product catalog as newline-delimited JSON (one product
+ * per line). Rows are read through a forward-only JDBC cursor with a
+ * bounded fetch size and written straight to the output stream, so memory
+ * use does not grow with the number of products.
+ */
+@Service
+public class ProductExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT id, name, description, price, original_price, stock_quantity, sku, image_url, "
+                    + "category_id, status, is_featured, rating, review_count, created_at, updated_at "
+                    + "FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ProductExportService(DataSource dataSource,
+                                @Value("${ecommerce.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Write every product to the given stream as NDJSON.
+     *
+     * @param out destination stream; not closed by this method
+     * @return number of products written
+     */
+    public long exportNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are terminated explicitly; suppress Jackson's default space between root values
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        long[] rows = new long[1];
+        try {
+            jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    writeProduct(generator, rs);
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+        return rows[0];
+    }
+
+    private static void writeProduct(JsonGenerator generator, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeStringField("name", rs.getString("name"));
+        generator.writeStringField("description", rs.getString("description"));
+        writeDecimal(generator, "price", rs.getBigDecimal("price"));
+        writeDecimal(generator, "originalPrice", rs.getBigDecimal("original_price"));
+        writeInteger(generator, "stockQuantity", rs, "stock_quantity");
+        generator.writeStringField("sku", rs.getString("sku"));
+        generator.writeStringField("imageUrl", rs.getString("image_url"));
+        writeInteger(generator, "categoryId", rs, "category_id");
+        generator.writeStringField("status", rs.getString("status"));
+        generator.writeBooleanField("featured", rs.getBoolean("is_featured"));
+        double rating = rs.getDouble("rating");
+        if (rs.wasNull()) {
+            generator.writeNullField("rating");
+        } else {
+            generator.writeNumberField("rating", rating);
+        }
+        writeInteger(generator, "reviewCount", rs, "review_count");
+        writeTimestamp(generator, "createdAt", rs.getTimestamp("created_at"));
+        writeTimestamp(generator, "updatedAt", rs.getTimestamp("updated_at"));
+        generator.writeEndObject();
+    }
+
+    private static void writeDecimal(JsonGenerator generator, String field, BigDecimal value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeInteger(JsonGenerator generator, String field, ResultSet rs, String column)
+            throws IOException, SQLException {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toLocalDateTime().toString());
+        }
+    }
+}
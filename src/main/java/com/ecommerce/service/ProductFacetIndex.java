@@ -0,0 +1,392 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.Product.ProductStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes over product IDs for faceted browsing. Each facet value
+ * (category, price band, rating bucket, status, in-stock) owns a bitmap
+ * of the products carrying it, so any filter combination resolves by
+ * bitmap intersection and facet counts are bitmap cardinalities.
+ * The index is maintained incrementally by {@link ProductService}.
+ */
+@Component
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String RATING = "rating";
+    public static final String STATUS = "status";
+    public static final String IN_STOCK = "inStock";
+
+    private static final int MAX_RATING_BUCKET = 5;
+
+    private final BigDecimal[] priceBandBounds;
+    private final String[] priceBandLabels;
+
+    private final ProductBitmap all = new ProductBitmap();
+    private final Map<Long, ProductBitmap> byCategory = new TreeMap<>();
+    private final Map<String, ProductBitmap> byPriceBand = new LinkedHashMap<>();
+    private final ProductBitmap[] byRating = new ProductBitmap[MAX_RATING_BUCKET + 1];
+    private final Map<ProductStatus, ProductBitmap> byStatus = new EnumMap<>(ProductStatus.class);
+    private final ProductBitmap inStock = new ProductBitmap();
+
+    /** Facet values currently recorded per product, used to clear old bits on update. */
+    private final Map<Long, FacetValues> indexed = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ProductFacetIndex(@Value("${ecommerce.facets.price-bands:25,50,100,200}") BigDecimal[] priceBandBounds) {
+        this.priceBandBounds = priceBandBounds;
+        this.priceBandLabels = new String[priceBandBounds.length + 1];
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < priceBandBounds.length; i++) {
+            priceBandLabels[i] = lower.toPlainString() + "-" + priceBandBounds[i].toPlainString();
+            lower = priceBandBounds[i];
+        }
+        priceBandLabels[priceBandBounds.length] = lower.toPlainString() + "+";
+        for (String label : priceBandLabels) {
+            byPriceBand.put(label, new ProductBitmap());
+        }
+        for (int i = 0; i <= MAX_RATING_BUCKET; i++) {
+            byRating[i] = new ProductBitmap();
+        }
+        for (ProductStatus status : ProductStatus.values()) {
+            byStatus.put(status, new ProductBitmap());
+        }
+    }
+
+    /**
+     * Replace the whole index with the given products.
+     */
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Long productId : new ArrayList<>(indexed.keySet())) {
+                clear(productId);
+            }
+            for (Product product : products) {
+                set(product);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or re-index a single product.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            clear(product.getId());
+            set(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a product from every facet.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            clear(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Resolve a filter combination and compute facet counts.
+     * Within one facet the selected values are OR-ed; across facets they are
+     * AND-ed. Counts for a facet are computed with every other facet's filter
+     * applied, so the client can show how many results each alternative value
+     * would give.
+     *
+     * @param offset number of matching products to skip (newest IDs first)
+     * @param limit  maximum number of product IDs to return
+     */
+    public FacetResult query(FacetFilter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, ProductBitmap> selections = new LinkedHashMap<>();
+            selections.put(CATEGORY, union(byCategory, filter.getCategoryIds()));
+            selections.put(PRICE_BAND, union(byPriceBand, filter.getPriceBands()));
+            selections.put(RATING, filter.getMinRating() == null ? null : ratingAtLeast(filter.getMinRating()));
+            selections.put(STATUS, union(byStatus, filter.getStatuses()));
+            selections.put(IN_STOCK, filter.getInStock() == null ? null
+                    : filter.getInStock() ? inStock : all.andNot(inStock));
+
+            ProductBitmap matches = intersectExcept(selections, null);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            counts.put(CATEGORY, countEach(byCategory, intersectExcept(selections, CATEGORY)));
+            counts.put(PRICE_BAND, countEach(byPriceBand, intersectExcept(selections, PRICE_BAND)));
+            counts.put(RATING, ratingCounts(intersectExcept(selections, RATING)));
+            counts.put(STATUS, countEach(byStatus, intersectExcept(selections, STATUS)));
+            ProductBitmap stockBase = intersectExcept(selections, IN_STOCK);
+            Map<String, Integer> stockCounts = new LinkedHashMap<>();
+            stockCounts.put("true", stockBase.andCardinality(inStock));
+            stockCounts.put("false", stockBase.cardinality() - stockBase.andCardinality(inStock));
+            counts.put(IN_STOCK, stockCounts);
+
+            return new FacetResult(matches.descendingIds(offset, limit), matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String priceBandOf(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (int i = 0; i < priceBandBounds.length; i++) {
+            if (price.compareTo(priceBandBounds[i]) < 0) {
+                return priceBandLabels[i];
+            }
+        }
+        return priceBandLabels[priceBandBounds.length];
+    }
+
+    private static int ratingBucketOf(Double rating) {
+        if (rating == null) {
+            return 0;
+        }
+        return (int) Math.max(0, Math.min(MAX_RATING_BUCKET, Math.floor(rating)));
+    }
+
+    private void set(Product product) {
+        int id = bitOf(product.getId());
+        FacetValues values = new FacetValues(
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                priceBandOf(product.getPrice()),
+                ratingBucketOf(product.getRating()),
+                product.getStatus(),
+                product.getStockQuantity() != null && product.getStockQuantity() > 0);
+
+        all.set(id);
+        if (values.categoryId != null) {
+            byCategory.computeIfAbsent(values.categoryId, k -> new ProductBitmap()).set(id);
+        }
+        if (values.priceBand != null) {
+            byPriceBand.get(values.priceBand).set(id);
+        }
+        byRating[values.ratingBucket].set(id);
+        if (values.status != null) {
+            byStatus.get(values.status).set(id);
+        }
+        if (values.inStock) {
+            inStock.set(id);
+        }
+        indexed.put(product.getId(), values);
+    }
+
+    private void clear(Long productId) {
+        FacetValues values = indexed.remove(productId);
+        if (values == null) {
+            return;
+        }
+        int id = bitOf(productId);
+        all.clear(id);
+        if (values.categoryId != null) {
+            ProductBitmap bitmap = byCategory.get(values.categoryId);
+            bitmap.clear(id);
+            if (bitmap.isEmpty()) {
+                byCategory.remove(values.categoryId);
+            }
+        }
+        if (values.priceBand != null) {
+            byPriceBand.get(values.priceBand).clear(id);
+        }
+        byRating[values.ratingBucket].clear(id);
+        if (values.status != null) {
+            byStatus.get(values.status).clear(id);
+        }
+        inStock.clear(id);
+    }
+
+    private static int bitOf(Long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Product ID out of bitmap range: " + productId);
+        }
+        return productId.intValue();
+    }
+
+    private static <K> ProductBitmap union(Map<K, ProductBitmap> facet, Collection<K> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        ProductBitmap result = new ProductBitmap();
+        for (K key : selected) {
+            ProductBitmap bitmap = facet.get(key);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private ProductBitmap ratingAtLeast(int minRating) {
+        ProductBitmap result = new ProductBitmap();
+        for (int i = Math.max(0, minRating); i <= MAX_RATING_BUCKET; i++) {
+            result.or(byRating[i]);
+        }
+        return result;
+    }
+
+    private ProductBitmap intersectExcept(Map<String, ProductBitmap> selections, String excluded) {
+        ProductBitmap result = all.copy();
+        for (Map.Entry<String, ProductBitmap> selection : selections.entrySet()) {
+            if (selection.getValue() != null && !selection.getKey().equals(excluded)) {
+                result.and(selection.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<String, Integer> countEach(Map<K, ProductBitmap> facet, ProductBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<K, ProductBitmap> entry : facet.entrySet()) {
+            counts.put(String.valueOf(entry.getKey()), base.andCardinality(entry.getValue()));
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> ratingCounts(ProductBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int atLeast = 0;
+        int[] perBucket = new int[MAX_RATING_BUCKET + 1];
+        for (int i = MAX_RATING_BUCKET; i >= 0; i--) {
+            atLeast += base.andCardinality(byRating[i]);
+            perBucket[i] = atLeast;
+        }
+        // Reported as "products with rating of at least N", matching the minRating filter
+        for (int i = 1; i <= MAX_RATING_BUCKET; i++) {
+            counts.put(String.valueOf(i), perBucket[i]);
+        }
+        return counts;
+    }
+
+    private static class FacetValues {
+
+        private final Long categoryId;
+        private final String priceBand;
+        private final int ratingBucket;
+        private final ProductStatus status;
+        private final boolean inStock;
+
+        FacetValues(Long categoryId, String priceBand, int ratingBucket, ProductStatus status, boolean inStock) {
+            this.categoryId = categoryId;
+            this.priceBand = priceBand;
+            this.ratingBucket = ratingBucket;
+            this.status = status;
+            this.inStock = inStock;
+        }
+    }
+
+    /**
+     * Filter selections for a facet query; null or empty means "any".
+     */
+    public static class FacetFilter {
+
+        private List<Long> categoryIds = Collections.emptyList();
+        private List<String> priceBands = Collections.emptyList();
+        private Integer minRating;
+        private List<ProductStatus> statuses = Collections.emptyList();
+        private Boolean inStock;
+
+        public List<Long> getCategoryIds() {
+            return categoryIds;
+        }
+
+        public void setCategoryIds(List<Long> categoryIds) {
+            this.categoryIds = categoryIds;
+        }
+
+        public List<String> getPriceBands() {
+            return priceBands;
+        }
+
+        public void setPriceBands(List<String> priceBands) {
+            this.priceBands = priceBands;
+        }
+
+        public Integer getMinRating() {
+            return minRating;
+        }
+
+        public void setMinRating(Integer minRating) {
+            this.minRating = minRating;
+        }
+
+        public List<ProductStatus> getStatuses() {
+            return statuses;
+        }
+
+        public void setStatuses(List<ProductStatus> statuses) {
+            this.statuses = statuses;
+        }
+
+        public Boolean getInStock() {
+            return inStock;
+        }
+
+        public void setInStock(Boolean inStock) {
+            this.inStock = inStock;
+        }
+    }
+
+    /**
+     * Matching product IDs for one page plus the total and per-facet counts.
+     */
+    public static class FacetResult {
+
+        private final List<Long> ids;
+        private final int total;
+        private final Map<String, Map<String, Integer>> counts;
+
+        public FacetResult(List<Long> ids, int total, Map<String, Map<String, Integer>> counts) {
+            this.ids = ids;
+            this.total = total;
+            this.counts = counts;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Map<String, Integer>> getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductImportResult;
+
+/**
+ * Thrown when an import fails for a reason other than its input, such as
+ * the database becoming unavailable. Chunks written before the failure
+ * stay committed; the partial result says how far the import got.
+ */
+public class ProductImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ProductImportResult result;
+
+    public ProductImportException(ProductImportResult result, Throwable cause) {
+        super("Product import stopped at row " + result.getStoppedAtRow(), cause);
+        this.result = result;
+    }
+
+    public ProductImportResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,590 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductImportResult;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.Product.ProductStatus;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk product import from a JSON array or CSV. The input is streamed and
+ * written in chunks of {@code ecommerce.import.batch-size} rows, one
+ * transaction per chunk, with Hibernate JDBC batching and pooled sequence
+ * IDs. Rows upsert by {@code sku}. A row that fails validation or
+ * violates a database constraint is rejected on its own; the rest of the
+ * load continues. Input that cannot be read any further (malformed JSON, a
+ * broken CSV stream) stops the import there, and any other failure, e.g.
+ * the database going away, stops it with a {@link ProductImportException};
+ * either way the result records the row it stopped at, and the chunks
+ * before it stay committed. Throughput is published as
+ * {@code ecommerce.import.*} metrics and returned in the result.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String[] CSV_COLUMNS = {
+            "sku", "name", "description", "price", "originalPrice", "stockQuantity",
+            "imageUrl", "categoryId", "status", "featured"
+    };
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ecommerce.import.batch-size:500}")
+    private int batchSize;
+
+    public ProductImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import a JSON array of {@link ProductImportRow} objects. Each element
+     * is bound on its own, so an element with a wrong type is reported as a
+     * failed row and the import goes on. Malformed JSON ends the import at
+     * that point, reporting it as a failed row and as
+     * {@link ProductImportResult#getStoppedAtRow()}.
+     *
+     * @throws IOException if the body is not a JSON array
+     */
+    public ProductImportResult importJson(InputStream in) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array of products");
+        }
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return importRows(Collections.<ParsedRow>emptyIterator());
+        }
+        MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(parser);
+        Iterator<ParsedRow> parsed = new Iterator<ParsedRow>() {
+            private long rowNumber;
+            private boolean malformed;
+            private ParsedRow next = readNext();
+
+            private ParsedRow readNext() {
+                if (malformed) {
+                    return null;
+                }
+                JsonNode node;
+                try {
+                    if (!nodes.hasNextValue()) {
+                        return null;
+                    }
+                    node = nodes.nextValue();
+                } catch (IOException e) {
+                    malformed = true;
+                    return ParsedRow.stop(++rowNumber, "Malformed JSON, import stopped: " + message(e));
+                }
+                rowNumber++;
+                try {
+                    return new ParsedRow(rowNumber, objectMapper.treeToValue(node, ProductImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    // Keep the SKU, if there is one, so the error can be matched to the source row
+                    ProductImportRow unbound = new ProductImportRow();
+                    unbound.setSku(node.path("sku").isValueNode() ? node.path("sku").asText() : null);
+                    return new ParsedRow(rowNumber, unbound, "Invalid row: " + message(e));
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ParsedRow next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ParsedRow row = next;
+                next = readNext();
+                return row;
+            }
+        };
+        return importRows(parsed);
+    }
+
+    private static String message(IOException e) {
+        return e instanceof JsonProcessingException
+                ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+    }
+
+    /**
+     * Import CSV with a header line naming the columns (any order, any
+     * subset of {@code sku,name,description,price,originalPrice,
+     * stockQuantity,imageUrl,categoryId,status,featured}). A read error
+     * part way through ends the import at that record, reported like
+     * malformed JSON.
+     *
+     * @throws IOException if the header is missing or names an unknown column
+     */
+    public ProductImportResult importCsv(InputStream in) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IOException("CSV header is missing");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (!isKnownColumn(name)) {
+                throw new IOException("Unknown CSV column: " + name);
+            }
+            columns.put(name, i);
+        }
+
+        Iterator<ParsedRow> parsed = new Iterator<ParsedRow>() {
+            private long rowNumber;
+            private boolean broken;
+            private ParsedRow next = readNext();
+
+            private ParsedRow readNext() {
+                if (broken) {
+                    return null;
+                }
+                List<String> record;
+                try {
+                    record = csv.readRecord();
+                } catch (IOException e) {
+                    broken = true;
+                    return ParsedRow.stop(++rowNumber, "Failed to read CSV, import stopped: " + e.getMessage());
+                }
+                return record == null ? null : parseCsvRecord(++rowNumber, record, columns);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ParsedRow next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ParsedRow row = next;
+                next = readNext();
+                return row;
+            }
+        };
+        return importRows(parsed);
+    }
+
+    private ProductImportResult importRows(Iterator<ParsedRow> rows) {
+        ProductImportResult result = new ProductImportResult();
+        Set<Long> knownCategories = new HashSet<>();
+        long start = System.nanoTime();
+
+        List<ParsedRow> chunk = new ArrayList<>(batchSize);
+        // First row not yet committed or rejected
+        long[] resumeAt = {1};
+        try {
+            while (rows.hasNext()) {
+                ParsedRow row = rows.next();
+                if (row.stop) {
+                    result.setStoppedAtRow(row.rowNumber);
+                    result.setStopReason(row.error);
+                }
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    importChunk(chunk, knownCategories, result, resumeAt);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, knownCategories, result, resumeAt);
+            }
+        } catch (RuntimeException e) {
+            long stoppedAt = resumeAt[0];
+            result.setStoppedAtRow(stoppedAt);
+            result.setStopReason("Import failed, stopped before row " + stoppedAt + ": " + e.getMessage());
+            finish(result, start);
+            throw new ProductImportException(result, e);
+        }
+        finish(result, start);
+        return result;
+    }
+
+    /**
+     * Record timing and metrics of a finished or stopped import.
+     */
+    private void finish(ProductImportResult result, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getTotalRows() * 1e9 / elapsedNanos);
+
+        Timer.builder("ecommerce.import.duration").register(meterRegistry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.summary("ecommerce.import.throughput").record(result.getRowsPerSecond());
+        meterRegistry.counter("ecommerce.import.rows", "outcome", "inserted").increment(result.getInserted());
+        meterRegistry.counter("ecommerce.import.rows", "outcome", "updated").increment(result.getUpdated());
+        meterRegistry.counter("ecommerce.import.rows", "outcome", "failed").increment(result.getFailed());
+        log.info("Imported {} product rows ({} inserted, {} updated, {} failed) in {} ms, {} rows/s",
+                result.getTotalRows(), result.getInserted(), result.getUpdated(), result.getFailed(),
+                result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+    }
+
+    /**
+     * Validate and write one chunk, advancing {@code resumeAt[0]} past the
+     * rows that are committed or rejected.
+     */
+    private void importChunk(List<ParsedRow> chunk, Set<Long> knownCategories, ProductImportResult result,
+                             long[] resumeAt) {
+        long afterChunk = chunk.get(chunk.size() - 1).rowNumber + 1;
+        result.setTotalRows(result.getTotalRows() + chunk.size());
+        loadCategories(chunk, knownCategories);
+
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            String error = row.error != null ? row.error : validate(row.row, knownCategories);
+            if (error != null) {
+                reject(result, row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            resumeAt[0] = afterChunk;
+            return;
+        }
+
+        Written written;
+        try {
+            written = writeChunk(valid);
+        } catch (DataIntegrityViolationException e) {
+            // Isolate the rows the database rejects: retry the chunk one row per transaction
+            log.debug("Import chunk failed, retrying row by row: {}", e.getMessage());
+            entityManager.clear();
+            for (ParsedRow row : valid) {
+                resumeAt[0] = row.rowNumber;
+                try {
+                    written = writeChunk(Collections.singletonList(row));
+                    resumeAt[0] = row.rowNumber + 1;
+                    applyWritten(written, result);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    entityManager.clear();
+                    reject(result, row, rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+            resumeAt[0] = afterChunk;
+            return;
+        }
+        resumeAt[0] = afterChunk;
+        applyWritten(written, result);
+    }
+
+    /**
+     * Upsert rows by SKU in one transaction and return what was written.
+     */
+    private Written writeChunk(List<ParsedRow> rows) {
+        Written written = transactionTemplate.execute(status -> {
+            Set<String> skus = new HashSet<>();
+            for (ParsedRow row : rows) {
+                if (row.row.getSku() != null) {
+                    skus.add(row.row.getSku());
+                }
+            }
+            Map<String, Product> bySku = new HashMap<>();
+            if (!skus.isEmpty()) {
+                for (Product existing : productRepository.findBySkuIn(skus)) {
+                    bySku.put(existing.getSku(), existing);
+                }
+            }
+
+            Written chunk = new Written();
+            Map<Product, Boolean> touched = new LinkedHashMap<>();
+            for (ParsedRow row : rows) {
+                ProductImportRow data = row.row;
+                Product product = data.getSku() != null ? bySku.get(data.getSku()) : null;
+                boolean isNew = product == null;
+                if (isNew) {
+                    product = new Product();
+                    if (data.getSku() != null) {
+                        bySku.put(data.getSku(), product);
+                    }
+                }
+                apply(data, product);
+                touched.merge(product, isNew, (first, again) -> first);
+            }
+            productRepository.saveAll(touched.keySet());
+            productRepository.flush();
+            for (Map.Entry<Product, Boolean> entry : touched.entrySet()) {
+                chunk.products.add(entry.getKey());
+                if (entry.getValue()) {
+                    chunk.inserted++;
+                } else {
+                    chunk.updated++;
+                }
+            }
+            return chunk;
+        });
+        // Keep the (request-scoped) persistence context from growing across chunks
+        entityManager.clear();
+        return written;
+    }
+
+    private void applyWritten(Written written, ProductImportResult result) {
+        result.setInserted(result.getInserted() + written.inserted);
+        result.setUpdated(result.getUpdated() + written.updated);
+        productService.onProductsImported(written.products);
+    }
+
+    private void apply(ProductImportRow data, Product product) {
+        product.setSku(data.getSku());
+        product.setName(data.getName());
+        product.setDescription(data.getDescription());
+        product.setPrice(data.getPrice());
+        product.setOriginalPrice(data.getOriginalPrice());
+        product.setStockQuantity(data.getStockQuantity() != null ? data.getStockQuantity() : 0);
+        product.setImageUrl(data.getImageUrl());
+        product.setCategory(data.getCategoryId() != null ? categoryRepository.getReferenceById(data.getCategoryId()) : null);
+        product.setStatus(data.getStatus() != null ? ProductStatus.valueOf(data.getStatus().toUpperCase(Locale.ROOT)) : ProductStatus.ACTIVE);
+        product.setFeatured(Boolean.TRUE.equals(data.getFeatured()));
+    }
+
+    private void loadCategories(List<ParsedRow> chunk, Set<Long> knownCategories) {
+        Set<Long> unknown = new HashSet<>();
+        for (ParsedRow row : chunk) {
+            if (row.row != null && row.row.getCategoryId() != null && !knownCategories.contains(row.row.getCategoryId())) {
+                unknown.add(row.row.getCategoryId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Category category : categoryRepository.findAllById(unknown)) {
+                knownCategories.add(category.getId());
+            }
+        }
+    }
+
+    private static String validate(ProductImportRow row, Set<Long> knownCategories) {
+        if (row == null) {
+            return "Empty row";
+        }
+        if (row.getName() == null || row.getName().trim().isEmpty()) {
+            return "Name is required";
+        }
+        if (row.getPrice() == null) {
+            return "Price is required";
+        }
+        if (row.getPrice().signum() < 0) {
+            return "Price must not be negative";
+        }
+        if (row.getStockQuantity() != null && row.getStockQuantity() < 0) {
+            return "Stock quantity must not be negative";
+        }
+        if (row.getCategoryId() != null && !knownCategories.contains(row.getCategoryId())) {
+            return "Category not found: " + row.getCategoryId();
+        }
+        if (row.getStatus() != null) {
+            try {
+                ProductStatus.valueOf(row.getStatus().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Unknown status: " + row.getStatus();
+            }
+        }
+        return null;
+    }
+
+    private static void reject(ProductImportResult result, ParsedRow row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(new ProductImportResult.RowError(row.rowNumber,
+                row.row != null ? row.row.getSku() : null, message));
+    }
+
+    private static boolean isKnownColumn(String name) {
+        for (String column : CSV_COLUMNS) {
+            if (column.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ParsedRow parseCsvRecord(long rowNumber, List<String> record, Map<String, Integer> columns) {
+        ProductImportRow row = new ProductImportRow();
+        row.setSku(field(record, columns, "sku"));
+        row.setName(field(record, columns, "name"));
+        row.setDescription(field(record, columns, "description"));
+        row.setImageUrl(field(record, columns, "imageUrl"));
+        row.setStatus(field(record, columns, "status"));
+        String featured = field(record, columns, "featured");
+        row.setFeatured(featured != null ? Boolean.valueOf(featured) : null);
+
+        String column = null;
+        try {
+            column = "price";
+            String price = field(record, columns, column);
+            row.setPrice(price != null ? new BigDecimal(price) : null);
+            column = "originalPrice";
+            String originalPrice = field(record, columns, column);
+            row.setOriginalPrice(originalPrice != null ? new BigDecimal(originalPrice) : null);
+            column = "stockQuantity";
+            String stock = field(record, columns, column);
+            row.setStockQuantity(stock != null ? Integer.valueOf(stock) : null);
+            column = "categoryId";
+            String categoryId = field(record, columns, column);
+            row.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+            return new ParsedRow(rowNumber, row, null);
+        } catch (NumberFormatException e) {
+            return new ParsedRow(rowNumber, row, "Invalid number in column " + column + ": " + field(record, columns, column));
+        }
+    }
+
+    /**
+     * Trimmed value of a column, or null if the column is absent or blank.
+     */
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static class ParsedRow {
+
+        private final long rowNumber;
+        private final ProductImportRow row;
+        private final String error;
+        /** The input could not be read past this row. */
+        private final boolean stop;
+
+        ParsedRow(long rowNumber, ProductImportRow row, String error) {
+            this(rowNumber, row, error, false);
+        }
+
+        private ParsedRow(long rowNumber, ProductImportRow row, String error, boolean stop) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+            this.error = error;
+            this.stop = stop;
+        }
+
+        static ParsedRow stop(long rowNumber, String error) {
+            return new ParsedRow(rowNumber, null, error, true);
+        }
+    }
+
+    private static class Written {
+
+        private final List<Product> products = new ArrayList<>();
+        private long inserted;
+        private long updated;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma-separated, double-quoted fields may
+     * contain commas, line breaks and doubled quotes.
+     */
+    private static class CsvReader {
+
+        private final Reader reader;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the next record, or null at end of input
+         */
+        List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory "top rated" and "newest" product rankings, overall and per
+ * category. Each ranking is a concurrent skip list of small entries kept
+ * in rank order, so reading the top N is a walk over the first N entries
+ * and never sorts or scans the products table. Rankings are maintained
+ * incrementally by {@link ProductService}; readers never block.
+ */
+@Component
+public class ProductLeaderboard {
+
+    /** Highest rating first; newer (higher) IDs break ties. */
+    private static final Comparator<Entry> BY_RATING = Comparator
+            .comparingDouble((Entry e) -> e.rating).reversed()
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.id).reversed());
+
+    /** Newest first; products without a timestamp sort last, then by ID. */
+    private static final Comparator<Entry> BY_CREATED = Comparator
+            .comparingLong((Entry e) -> e.createdAt).reversed()
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.id).reversed());
+
+    private final NavigableSet<Entry> topRated = new ConcurrentSkipListSet<>(BY_RATING);
+    private final NavigableSet<Entry> newest = new ConcurrentSkipListSet<>(BY_CREATED);
+    private final Map<Long, NavigableSet<Entry>> topRatedByCategory = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Entry>> newestByCategory = new ConcurrentHashMap<>();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private volatile boolean ready;
+
+    public synchronized void rebuild(Collection<Product> products) {
+        for (Long productId : new ArrayList<>(entries.keySet())) {
+            removeEntry(productId);
+        }
+        for (Product product : products) {
+            addEntry(product);
+        }
+        ready = true;
+    }
+
+    /**
+     * Add a product or move it to its new rank.
+     */
+    public synchronized void update(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        removeEntry(product.getId());
+        addEntry(product);
+    }
+
+    public synchronized void remove(Long productId) {
+        removeEntry(productId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * IDs of the highest-rated products, best first.
+     *
+     * @param categoryId restrict to one category, or null for the whole catalog
+     */
+    public List<Long> topRated(Long categoryId, int limit) {
+        return firstIds(categoryId == null ? topRated : topRatedByCategory.get(categoryId), limit);
+    }
+
+    /**
+     * IDs of the most recently created products, newest first.
+     *
+     * @param categoryId restrict to one category, or null for the whole catalog
+     */
+    public List<Long> newest(Long categoryId, int limit) {
+        return firstIds(categoryId == null ? newest : newestByCategory.get(categoryId), limit);
+    }
+
+    private static List<Long> firstIds(NavigableSet<Entry> ranking, int limit) {
+        List<Long> ids = new ArrayList<>(Math.max(0, limit));
+        if (ranking == null) {
+            return ids;
+        }
+        Iterator<Entry> it = ranking.iterator();
+        while (it.hasNext() && ids.size() < limit) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    private void addEntry(Product product) {
+        Entry entry = new Entry(product);
+        entries.put(entry.id, entry);
+        topRated.add(entry);
+        newest.add(entry);
+        if (entry.categoryId != null) {
+            topRatedByCategory.computeIfAbsent(entry.categoryId, k -> new ConcurrentSkipListSet<>(BY_RATING)).add(entry);
+            newestByCategory.computeIfAbsent(entry.categoryId, k -> new ConcurrentSkipListSet<>(BY_CREATED)).add(entry);
+        }
+    }
+
+    private void removeEntry(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        topRated.remove(entry);
+        newest.remove(entry);
+        if (entry.categoryId != null) {
+            topRatedByCategory.get(entry.categoryId).remove(entry);
+            newestByCategory.get(entry.categoryId).remove(entry);
+        }
+    }
+
+    /**
+     * Immutable ranking key of one product; replaced, never mutated, when the product changes.
+     */
+    private static final class Entry {
+
+        private final long id;
+        private final double rating;
+        private final long createdAt;
+        private final Long categoryId;
+
+        Entry(Product product) {
+            this.id = product.getId();
+            this.rating = product.getRating() != null ? product.getRating() : 0.0;
+            this.createdAt = product.getCreatedAt() != null
+                    ? product.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + product.getCreatedAt().getNano()
+                    : Long.MIN_VALUE;
+            this.categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        }
+    }
+}
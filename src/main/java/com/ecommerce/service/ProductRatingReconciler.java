@@ -0,0 +1,274 @@
+package com.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Checks the running rating aggregates on {@code products}
+ * ({@code rating_sum}, {@code rating_count}, {@code review_count} and the
+ * derived {@code rating}) against a full aggregate of {@code reviews} and
+ * corrects any product that has drifted, e.g. through writes that bypassed
+ * {@link ReviewService} or columns left empty by an older schema.
+ * <p>
+ * Products are walked by primary key in chunks of
+ * {@code ecommerce.ratings.reconcile-chunk-size}, one transaction per
+ * chunk. Each chunk locks its product rows before aggregating their
+ * reviews: a review write that already updated a product is committed
+ * before the aggregate is read, and one that has not yet done so applies
+ * its delta on top of the corrected values, so neither is lost.
+ * <p>
+ * {@link #recompute(Collection)} runs the same check for a given set of
+ * products; {@link RatingRecomputeQueue} uses it to bring products a
+ * burst of reviews touched up to date in one write each.
+ */
+@Service
+public class ProductRatingReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRatingReconciler.class);
+
+    private static final String LOCK_CHUNK_SQL =
+            "SELECT id, rating, rating_sum, rating_count, review_count FROM products "
+                    + "WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String AGGREGATE_SQL =
+            "SELECT product_id, COUNT(*), COUNT(rating), SUM(rating) FROM reviews "
+                    + "WHERE product_id BETWEEN ? AND ? GROUP BY product_id";
+
+    private static final String LOCK_IDS_SQL =
+            "SELECT id, rating, rating_sum, rating_count, review_count FROM products "
+                    + "WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String AGGREGATE_IDS_SQL =
+            "SELECT product_id, COUNT(*), COUNT(rating), SUM(rating) FROM reviews "
+                    + "WHERE product_id IN (:ids) GROUP BY product_id";
+
+    private static final String FIX_SQL =
+            "UPDATE products SET rating = ?, rating_sum = ?, rating_count = ?, review_count = ? WHERE id = ?";
+
+    /** Ratings are sums of small decimals; anything closer than this is rounding, not drift. */
+    private static final double TOLERANCE = 1e-6;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${ecommerce.ratings.reconcile-enabled:true}")
+    private boolean enabled;
+
+    @Value("${ecommerce.ratings.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Counter checkedProducts;
+    private final Counter correctedProducts;
+
+    public ProductRatingReconciler(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkedProducts = meterRegistry.counter("ecommerce.ratings.reconcile.checked");
+        this.correctedProducts = meterRegistry.counter("ecommerce.ratings.reconcile.corrected");
+    }
+
+    /**
+     * Fill in aggregates missing from rows written before they existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(cron = "${ecommerce.ratings.reconcile-cron:0 45 3 * * *}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Check every product; skipped if a run is already in progress.
+     *
+     * @return number of products corrected
+     */
+    public int reconcile() {
+        if (!running.tryLock()) {
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int checked = 0;
+            int corrected = 0;
+            long[] afterId = {0};
+            for (;;) {
+                List<Long> fixed = new ArrayList<>();
+                Integer rows = transactionTemplate.execute(status -> reconcileChunk(afterId, fixed));
+                checked += rows;
+                corrected += fixed.size();
+                checkedProducts.increment(rows);
+                correctedProducts.increment(fixed.size());
+                if (!fixed.isEmpty()) {
+                    productService.refreshStockStats(fixed);
+                }
+                if (rows < chunkSize) {
+                    break;
+                }
+            }
+            if (corrected > 0) {
+                log.warn("Corrected rating aggregates of {} of {} products in {} ms", corrected, checked,
+                        System.currentTimeMillis() - start);
+            } else {
+                log.info("Rating aggregates of {} products verified in {} ms", checked,
+                        System.currentTimeMillis() - start);
+            }
+            return corrected;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Recompute the aggregates of the given products from their reviews in
+     * one transaction, with the same row locking as a reconcile chunk.
+     *
+     * @return IDs of the products whose stored values changed
+     */
+    public List<Long> recompute(Collection<Long> productIds) {
+        List<Long> changed = new ArrayList<>();
+        if (productIds.isEmpty()) {
+            return changed;
+        }
+        transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", productIds);
+            List<StoredAggregate> stored = namedParameterJdbcTemplate.query(LOCK_IDS_SQL, params, STORED);
+            Map<Long, Aggregate> actual = new HashMap<>();
+            namedParameterJdbcTemplate.query(AGGREGATE_IDS_SQL, params, rs -> {
+                actual.put(rs.getLong(1), new Aggregate(rs.getLong(2), rs.getLong(3), rs.getDouble(4)));
+            });
+            correct(stored, actual, changed, false);
+            return null;
+        });
+        if (!changed.isEmpty()) {
+            productService.refreshStockStats(changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Lock the next chunk of products after {@code afterId[0]}, compare and
+     * correct them, and advance {@code afterId[0]}.
+     *
+     * @return number of products in the chunk
+     */
+    private int reconcileChunk(long[] afterId, List<Long> fixed) {
+        List<StoredAggregate> stored = jdbcTemplate.query(LOCK_CHUNK_SQL, STORED, afterId[0], chunkSize);
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        long firstId = stored.get(0).id;
+        long lastId = stored.get(stored.size() - 1).id;
+        afterId[0] = lastId;
+
+        Map<Long, Aggregate> actual = new HashMap<>();
+        jdbcTemplate.query(AGGREGATE_SQL, rs -> {
+            actual.put(rs.getLong(1), new Aggregate(rs.getLong(2), rs.getLong(3), rs.getDouble(4)));
+        }, firstId, lastId);
+        correct(stored, actual, fixed, true);
+        return stored.size();
+    }
+
+    /**
+     * Overwrite every stored aggregate that differs from the actual one.
+     *
+     * @param drift whether a difference is unexpected and worth logging
+     */
+    private void correct(List<StoredAggregate> stored, Map<Long, Aggregate> actual, List<Long> fixed, boolean drift) {
+        List<Object[]> updates = new ArrayList<>();
+        for (StoredAggregate product : stored) {
+            Aggregate aggregate = actual.getOrDefault(product.id, Aggregate.NONE);
+            double rating = aggregate.rated > 0 ? aggregate.sum / aggregate.rated : 0.0;
+            if (!product.matches(rating, aggregate.sum, aggregate.rated, aggregate.reviews)) {
+                if (drift) {
+                    log.debug("Product {} rating drifted: stored sum {} / {} rated of {} reviews, actual {} / {} of {}",
+                            product.id, product.ratingSum, product.ratingCount, product.reviewCount,
+                            aggregate.sum, aggregate.rated, aggregate.reviews);
+                }
+                updates.add(new Object[]{rating, aggregate.sum, (int) aggregate.rated, (int) aggregate.reviews,
+                        product.id});
+                fixed.add(product.id);
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(FIX_SQL, updates);
+        }
+    }
+
+    private static final RowMapper<StoredAggregate> STORED = (rs, rowNum) -> new StoredAggregate(
+            rs.getLong(1), (Double) rs.getObject(2), (Double) rs.getObject(3),
+            (Integer) rs.getObject(4), (Integer) rs.getObject(5));
+
+    private static final class Aggregate {
+
+        static final Aggregate NONE = new Aggregate(0, 0, 0.0);
+
+        final long reviews;
+        final long rated;
+        final double sum;
+
+        Aggregate(long reviews, long rated, double sum) {
+            this.reviews = reviews;
+            this.rated = rated;
+            this.sum = sum;
+        }
+    }
+
+    private static final class StoredAggregate {
+
+        final long id;
+        final Double rating;
+        final Double ratingSum;
+        final Integer ratingCount;
+        final Integer reviewCount;
+
+        StoredAggregate(long id, Double rating, Double ratingSum, Integer ratingCount, Integer reviewCount) {
+            this.id = id;
+            this.rating = rating;
+            this.ratingSum = ratingSum;
+            this.ratingCount = ratingCount;
+            this.reviewCount = reviewCount;
+        }
+
+        boolean matches(double rating, double sum, long rated, long reviews) {
+            return this.rating != null && Math.abs(this.rating - rating) <= TOLERANCE
+                    && ratingSum != null && Math.abs(ratingSum - sum) <= TOLERANCE
+                    && ratingCount != null && ratingCount == rated
+                    && reviewCount != null && reviewCount == reviews;
+        }
+    }
+}
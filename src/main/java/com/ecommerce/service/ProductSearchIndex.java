@@ -0,0 +1,259 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions.
+ * Keeps a postings list (product ID to term frequency) per term and ranks
+ * matches with BM25, so keyword search no longer scans the products table.
+ * The index is maintained incrementally by {@link ProductService}.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Name tokens count this many times towards a product's term frequency. */
+    private static final int NAME_WEIGHT = 3;
+
+    /** Upper bound on dictionary terms a single unmatched query term may expand to. */
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * Replace the whole index with the given products.
+     */
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            for (Product product : products) {
+                addDocument(product);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or re-index a single product.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a product from the index.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rank products matching any of the query terms.
+     *
+     * @param query  free-text query
+     * @param offset number of ranked hits to skip
+     * @param limit  maximum number of hits to return
+     * @return the requested slice of product IDs, best match first, and the total hit count
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return new Hits(Collections.<Long>emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            double avgLength = docCount == 0 ? 0 : (double) totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (String term : terms) {
+                for (Map<Long, Integer> postingList : postingListsFor(term)) {
+                    double idf = Math.log(1 + (docCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                    for (Map.Entry<Long, Integer> posting : postingList.entrySet()) {
+                        int tf = posting.getValue();
+                        int length = documentLengths.get(posting.getKey());
+                        double norm = K1 * (1 - B + B * (avgLength == 0 ? 0 : length / avgLength));
+                        double score = idf * (tf * (K1 + 1)) / (tf + norm);
+                        scores.merge(posting.getKey(), score, Double::sum);
+                    }
+                }
+            }
+
+            return new Hits(topIds(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case alphanumeric tokens.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private List<Map<Long, Integer>> postingListsFor(String term) {
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            return Collections.singletonList(exact);
+        }
+        // No exact term: treat the query term as a prefix so partial words still match
+        List<Map<Long, Integer>> expanded = new ArrayList<>();
+        SortedMap<String, Map<Long, Integer>> range = postings.subMap(term, term + Character.MAX_VALUE);
+        for (Map<Long, Integer> postingList : range.values()) {
+            expanded.add(postingList);
+            if (expanded.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return expanded;
+    }
+
+    private List<Long> topIds(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (offset >= scores.size()) {
+            return Collections.emptyList();
+        }
+        // Min-heap of the best `wanted` hits; ties broken by lower ID first
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(wanted + 1, (a, b) -> {
+            int byScore = Double.compare(a.getValue(), b.getValue());
+            return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+        });
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList(Math.min(offset, ranked.size()), ranked.size());
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            termFreqs.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+
+        int length = 0;
+        documents.put(product.getId(), termFreqs);
+        for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(product.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documentLengths.put(product.getId(), length);
+        totalLength += length;
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Integer> termFreqs = documents.remove(productId);
+        if (termFreqs == null) {
+            return;
+        }
+        for (String term : termFreqs.keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(productId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(productId);
+    }
+
+    /**
+     * A ranked slice of search hits.
+     */
+    public static class Hits {
+
+        private final List<Long> ids;
+        private final long total;
+
+        public Hits(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
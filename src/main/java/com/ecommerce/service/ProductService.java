@@ -1,47 +1,225 @@
 package com.ecommerce.service;
 
-import com.ecommerce.entity.Product;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductFacetResponse;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.dto.ProductView;
+import com.ecommerce.dto.StockShortage;
 import com.ecommerce.entity.Product.ProductStatus;
+import com.ecommerce.entity.Product;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Service layer for product operations. Provides CRUD functionality and
  * various query helpers for the monolithic e-commerce application.
+ * Read methods used by the REST API return {@link ProductSummary}
+ * projections fetched in one joined query. Single-product lookups are cached
+ * in the {@value #PRODUCT_CACHE} and {@value #PRODUCT_SUMMARY_CACHE} caches;
+ * every method that changes a product evicts or refreshes its entries.
  */
 @Service
 public class ProductService {
 
+    public static final String PRODUCT_CACHE = "products";
+    public static final String PRODUCT_SUMMARY_CACHE = "productSummaries";
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP "
+                    + "WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String OUT_OF_STOCK_SQL =
+            "UPDATE products SET status = 'OUT_OF_STOCK' WHERE id = ? AND stock_quantity <= 0";
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ProductLeaderboard leaderboard;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RenderedPageCache pageCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventLog eventLog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Lazy: the ledger calls back into this service after each flush
+    @Autowired
+    @Lazy
+    private InventoryLedger inventoryLedger;
+
+    @Value("${ecommerce.leaderboard.default-size:10}")
+    private int leaderboardDefaultSize;
+
+    @Value("${ecommerce.leaderboard.max-size:100}")
+    private int leaderboardMaxSize;
+
+    /**
+     * Load the in-memory product indexes once the application (and its
+     * sample data) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        List<Product> products = productRepository.findAll();
+        searchIndex.rebuild(products);
+        facetIndex.rebuild(products);
+        suggestionIndex.indexProducts(products);
+        leaderboard.rebuild(products);
+    }
+
     public List<Product> getAllProductsAsList() {
         return productRepository.findAll();
     }
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public List<ProductSummary> getAllProductSummaries() {
+        return productRepository.findAllSummaries();
+    }
+
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
+        return productRepository.findAllSummaries(pageable);
     }
 
+    /**
+     * Keyset (seek) listing ordered by {@code sortBy} then ID. Pass the
+     * {@code nextCursor} of the previous page to continue; page N costs the
+     * same as page 1 because there is no offset and no count query.
+     *
+     * @throws IllegalArgumentException if the sort key is unsupported, the cursor is invalid or the
+     *                                  size is out of range
+     */
+    public CursorPage<ProductSummary> getProductsAfter(String sortBy, String sortDir, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!CURSOR_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort key: " + sortBy);
+        }
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = KeysetCursor.decode(cursor, 4);
+            if (!parts[0].equals(sortBy) || Boolean.parseBoolean(parts[1]) != descending) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            afterValue = parseSortValue(sortBy, parts[2]);
+            afterId = Long.valueOf(parts[3]);
+        }
+
+        List<Product> rows = productRepository.findPageAfter(sortBy, descending, afterValue, afterId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(sortBy, String.valueOf(descending),
+                    formatSortValue(sortBy, last), String.valueOf(last.getId()));
+        }
+        List<ProductSummary> summaries = new ArrayList<>(content.size());
+        for (Product product : content) {
+            summaries.add(ProductView.of(product));
+        }
+        return new CursorPage<>(summaries, size, nextCursor, hasNext);
+    }
+
+    @Cacheable(value = PRODUCT_CACHE, key = "#id")
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
+    /**
+     * Load several products with one query, keyed by ID. Missing IDs are
+     * simply absent from the result.
+     */
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            byId.put(product.getId(), product);
+        }
+        return byId;
+    }
+
+    /**
+     * Like {@link #getProductsByIds} but row-locks the products until the
+     * caller's transaction ends.
+     */
+    @Transactional
+    public Map<Long, Product> lockProductsByIds(Collection<Long> ids) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllByIdForUpdate(ids)) {
+            byId.put(product.getId(), product);
+        }
+        return byId;
+    }
+
+    @Cacheable(value = PRODUCT_SUMMARY_CACHE, key = "#id")
+    public Optional<ProductSummary> getProductSummaryById(Long id) {
+        return productRepository.findSummaryById(id).map(ProductView::copyOf);
+    }
+
+    @CachePut(value = PRODUCT_CACHE, key = "#result.id")
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventLog.stockSet(saved.getId(), saved.getStockQuantity());
+        onProductSaved(saved);
+        return saved;
     }
 
+    @CacheEvict(value = {PRODUCT_CACHE, PRODUCT_SUMMARY_CACHE}, key = "#id")
     public Product updateProduct(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -57,18 +235,25 @@ public class ProductService {
         product.setStatus(productDetails.getStatus());
         product.setFeatured(productDetails.isFeatured());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        inventoryLedger.resync(id);
+        eventLog.stockSet(id, saved.getStockQuantity());
+        onProductSaved(saved);
+        return saved;
     }
 
+    @CacheEvict(value = {PRODUCT_CACHE, PRODUCT_SUMMARY_CACHE}, key = "#id")
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        inventoryLedger.resync(id);
+        onProductDeleted(id);
     }
 
-    public Page<Product> getProductsByStatus(ProductStatus status, Pageable pageable) {
+    public Page<ProductSummary> getProductsByStatus(ProductStatus status, Pageable pageable) {
         return productRepository.findByStatus(status, pageable);
     }
 
-    public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
+    public Page<ProductSummary> getProductsByCategory(Long categoryId, Pageable pageable) {
         return productRepository.findByCategoryId(categoryId, pageable);
     }
 
@@ -76,56 +261,362 @@ public class ProductService {
         return productRepository.findByIsFeaturedTrue();
     }
 
-    public Page<Product> getFeaturedProducts(Pageable pageable) {
+    public List<ProductSummary> getFeaturedProductSummaries() {
+        return productRepository.findFeaturedSummaries();
+    }
+
+    public Page<ProductSummary> getFeaturedProducts(Pageable pageable) {
         return productRepository.findByIsFeaturedTrue(pageable);
     }
 
-    public Page<Product> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchByKeyword(keyword, pageable);
+    /**
+     * Keyword search served from the in-memory inverted index, ranked by
+     * relevance. Falls back to the LIKE query until the index is built.
+     */
+    public Page<ProductSummary> searchProducts(String keyword, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return productRepository.searchByKeyword(keyword, pageable);
+        }
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findSummariesInOrder(hits.getIds()), pageable, hits.getTotal());
+    }
+
+    /**
+     * Combined category / price band / rating / status / stock filtering,
+     * resolved by intersecting the facet bitmaps. Returns the requested page
+     * (newest products first) together with per-facet counts.
+     *
+     * @throws IllegalArgumentException if the page is negative or the size is out of range
+     * @throws IllegalStateException    if the facet index is still being built
+     */
+    public ProductFacetResponse<ProductSummary> browseFacets(ProductFacetIndex.FacetFilter filter, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!facetIndex.isReady()) {
+            throw new IllegalStateException("Facet index is not ready yet");
+        }
+        ProductFacetIndex.FacetResult result = facetIndex.query(filter, (long) page * size, size);
+        return new ProductFacetResponse<>(findSummariesInOrder(result.getIds()), page, size,
+                result.getTotal(), result.getCounts());
     }
 
-    public Page<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+    public Page<ProductSummary> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
         return productRepository.findByPriceRange(minPrice, maxPrice, pageable);
     }
 
-    public Page<Product> getProductsByMinRating(Double minRating, Pageable pageable) {
+    public Page<ProductSummary> getProductsByMinRating(Double minRating, Pageable pageable) {
         return productRepository.findByMinRating(minRating, pageable);
     }
 
-    public Page<Product> getInStockProducts(Pageable pageable) {
+    public Page<ProductSummary> getInStockProducts(Pageable pageable) {
         return productRepository.findInStock(pageable);
     }
 
-    public List<Product> getTopRatedProducts() {
-        return productRepository.findTop10ByOrderByRatingDesc();
+    public List<ProductSummary> getTopRatedProducts() {
+        return getTopRatedProducts(null, null);
     }
 
-    public List<Product> getLatestProducts() {
-        return productRepository.findTop10ByOrderByCreatedAtDesc();
+    public List<ProductSummary> getLatestProducts() {
+        return getLatestProducts(null, null);
     }
 
+    /**
+     * Highest-rated products, read from the in-memory leaderboard.
+     *
+     * @param categoryId restrict to one category, or null for the whole catalog
+     * @param limit      number of products, or null for the configured default (capped at the configured maximum)
+     */
+    public List<ProductSummary> getTopRatedProducts(Long categoryId, Integer limit) {
+        int size = leaderboardSize(limit);
+        if (!leaderboard.isReady()) {
+            return categoryId == null
+                    ? productRepository.findTopByRating(PageRequest.of(0, size))
+                    : productRepository.findTopByRatingInCategory(categoryId, PageRequest.of(0, size));
+        }
+        return findSummariesInOrder(leaderboard.topRated(categoryId, size));
+    }
+
+    /**
+     * Most recently created products, read from the in-memory leaderboard.
+     *
+     * @param categoryId restrict to one category, or null for the whole catalog
+     * @param limit      number of products, or null for the configured default (capped at the configured maximum)
+     */
+    public List<ProductSummary> getLatestProducts(Long categoryId, Integer limit) {
+        int size = leaderboardSize(limit);
+        if (!leaderboard.isReady()) {
+            return categoryId == null
+                    ? productRepository.findTopByCreatedAt(PageRequest.of(0, size))
+                    : productRepository.findTopByCreatedAtInCategory(categoryId, PageRequest.of(0, size));
+        }
+        return findSummariesInOrder(leaderboard.newest(categoryId, size));
+    }
+
+    /**
+     * Take {@code quantity} units of a product from stock, failing if fewer
+     * are left.
+     *
+     * @throws InsufficientStockException if the product has less than {@code quantity} in stock
+     */
+    @Transactional
     public void updateStockQuantity(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (!decrementStock(productId, quantity)) {
+            throw new InsufficientStockException(Collections.singletonList(
+                    new StockShortage(productId, quantity, getStockQuantity(productId))));
+        }
+    }
+
+    /**
+     * Take stock for several products at once with one JDBC batch of
+     * guarded UPDATEs ({@code stock_quantity >= quantity}). Joins the
+     * caller's transaction; rows are updated in product ID order so
+     * concurrent callers lock them consistently. Requires a driver that
+     * reports per-statement update counts for batches.
+     *
+     * @param quantities units to take per product ID
+     * @return one shortage per product that did not have enough stock; empty if all were taken
+     */
+    @Transactional
+    public List<StockShortage> decrementStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> ordered = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, Integer> entry : ordered) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            args.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        // Same contract as the @Modifying queries: flush before, and drop now-stale entities after
+        entityManager.flush();
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, args);
+        entityManager.clear();
 
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        if (product.getStockQuantity() <= 0) {
-            product.setStatus(ProductStatus.OUT_OF_STOCK);
+        List<StockShortage> shortages = new ArrayList<>();
+        List<Long> decremented = new ArrayList<>(ordered.size());
+        List<Object[]> statusArgs = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            Long productId = ordered.get(i).getKey();
+            if (counts[i] == 0) {
+                shortages.add(new StockShortage(
+                        productId, ordered.get(i).getValue(), getStockQuantity(productId)));
+            } else {
+                decremented.add(productId);
+                eventLog.stockDecremented(productId, ordered.get(i).getValue());
+                statusArgs.add(new Object[]{productId});
+            }
         }
+        if (!decremented.isEmpty()) {
+            jdbcTemplate.batchUpdate(OUT_OF_STOCK_SQL, statusArgs);
+            afterCommit(() -> refreshStockStats(decremented));
+        }
+        return shortages;
+    }
 
-        productRepository.save(product);
+    /**
+     * Take {@code quantity} units of a product from stock with a guarded
+     * UPDATE ({@code stock_quantity >= quantity}), so concurrent orders can
+     * never oversell. Joins the caller's transaction; caches and indexes
+     * are refreshed only once it commits.
+     *
+     * @return true if the stock was taken, false if fewer than {@code quantity} units are left
+     */
+    @Transactional
+    public boolean decrementStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (productRepository.decrementStockIfAvailable(productId, quantity) == 0) {
+            if (!productRepository.findStockQuantityById(productId).isPresent()) {
+                throw new RuntimeException("Product not found");
+            }
+            return false;
+        }
+        productRepository.updateStatusIfDepleted(productId, ProductStatus.OUT_OF_STOCK);
+        eventLog.stockDecremented(productId, quantity);
+        afterCommit(() -> refreshStats(productId));
+        return true;
     }
 
-    public void updateProductRating(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public int getStockQuantity(Long productId) {
+        return productRepository.findStockQuantityById(productId).orElse(0);
+    }
+
+    /**
+     * Apply one review change to the product's running rating sum and
+     * counts with a single UPDATE, instead of re-aggregating all of its
+     * reviews. Caches and indexes are refreshed after commit.
+     *
+     * @param sumDelta    change to the sum of ratings
+     * @param ratedDelta  change to the number of reviews with a rating
+     * @param reviewDelta change to the number of reviews
+     */
+    @Transactional
+    public void applyRatingDelta(Long productId, double sumDelta, int ratedDelta, int reviewDelta) {
+        if (productRepository.applyRatingDelta(productId, sumDelta, ratedDelta, reviewDelta) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+        afterCommit(() -> refreshStats(productId));
+    }
+
+    private int leaderboardSize(Integer limit) {
+        int size = limit != null ? limit : leaderboardDefaultSize;
+        return Math.max(1, Math.min(size, leaderboardMaxSize));
+    }
+
+    private static final List<String> CURSOR_SORT_KEYS = Arrays.asList("id", "name", "price", "rating", "createdAt");
+
+    private static final int MAX_PAGE_SIZE = 100;
 
-        Double averageRating = reviewRepository.findAverageRatingByProductId(productId);
-        Long reviewCount = reviewRepository.countByProductId(productId);
+    /**
+     * Sort key value of a product as stored in a cursor.
+     */
+    private static String formatSortValue(String sortBy, Product product) {
+        switch (sortBy) {
+            case "name":
+                return product.getName();
+            case "price":
+                return product.getPrice().toPlainString();
+            case "rating":
+                return String.valueOf(product.getRating());
+            case "createdAt":
+                return product.getCreatedAt().toString();
+            default:
+                return "";
+        }
+    }
+
+    private static Object parseSortValue(String sortBy, String value) {
+        try {
+            switch (sortBy) {
+                case "name":
+                    return value;
+                case "price":
+                    return new BigDecimal(value);
+                case "rating":
+                    return Double.valueOf(value);
+                case "createdAt":
+                    return LocalDateTime.parse(value);
+                default:
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Load product summaries by ID in one query, preserving the order of
+     * the given IDs and skipping any that no longer exist.
+     */
+    private List<ProductSummary> findSummariesInOrder(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary summary : productRepository.findSummariesByIdIn(ids)) {
+            byId.put(summary.getId(), summary);
+        }
+        List<ProductSummary> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductSummary summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Bring caches and in-memory indexes up to date after a bulk import
+     * wrote products outside of {@link #createProduct}/{@link #updateProduct}.
+     */
+    public void onProductsImported(Collection<Product> products) {
+        Cache productCache = cacheManager.getCache(PRODUCT_CACHE);
+        Cache summaries = cacheManager.getCache(PRODUCT_SUMMARY_CACHE);
+        for (Product product : products) {
+            if (productCache != null) {
+                productCache.evict(product.getId());
+            }
+            if (summaries != null) {
+                summaries.evict(product.getId());
+            }
+            inventoryLedger.resync(product.getId());
+            eventLog.stockSet(product.getId(), product.getStockQuantity());
+            onProductSaved(product);
+        }
+    }
 
-        product.setRating(averageRating != null ? averageRating : 0.0);
-        product.setReviewCount(reviewCount != null ? reviewCount.intValue() : 0);
+    /**
+     * Refresh caches and indexes for products whose stock or rating was
+     * written directly to the database, e.g. by the inventory ledger's
+     * flush or the rating reconciler.
+     */
+    public void refreshStockStats(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            refreshStats(productId);
+        }
+    }
+
+    /**
+     * Reload a product whose stock or rating was changed by a bulk UPDATE
+     * and bring caches and indexes up to date.
+     */
+    private void refreshStats(Long productId) {
+        Cache productCache = cacheManager.getCache(PRODUCT_CACHE);
+        if (productCache != null) {
+            productCache.evict(productId);
+        }
+        Cache summaries = cacheManager.getCache(PRODUCT_SUMMARY_CACHE);
+        if (summaries != null) {
+            summaries.evict(productId);
+        }
+        productRepository.findById(productId).ifPresent(this::onProductStatsChanged);
+    }
+
+    /**
+     * Run {@code action} once the current transaction commits, or right away
+     * if there is none.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void onProductSaved(Product product) {
+        searchIndex.index(product);
+        facetIndex.index(product);
+        suggestionIndex.indexProduct(product);
+        leaderboard.update(product);
+        pageCache.invalidateAll();
+    }
+
+    /**
+     * Stock or rating changed; the searchable text did not, and neither
+     * did anything the cached storefront pages display.
+     */
+    private void onProductStatsChanged(Product product) {
+        facetIndex.index(product);
+        suggestionIndex.indexProduct(product);
+        leaderboard.update(product);
+    }
 
-        productRepository.save(product);
+    private void onProductDeleted(Long productId) {
+        searchIndex.remove(productId);
+        facetIndex.remove(productId);
+        suggestionIndex.removeProduct(productId);
+        leaderboard.remove(productId);
+        pageCache.invalidateAll();
     }
 }
@@ -0,0 +1,212 @@
+package com.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces product rating updates ({@code ecommerce.ratings.coalesce=true}).
+ * <p>
+ * Instead of writing the product row once per review, a committed review
+ * change only marks its product dirty. A background check every
+ * {@code coalesce-check-ms} recomputes, in batches, each dirty product
+ * that has had no further change for {@code coalesce-window-ms}, or whose
+ * first pending change is {@code max-staleness-ms} old, so a steady storm
+ * of reviews still shows up within the staleness bound. However many
+ * reviews arrived in between, each product gets one recompute and at most
+ * one write, taken with the locking of
+ * {@link ProductRatingReconciler#recompute}, so the result always matches
+ * the committed reviews.
+ * <p>
+ * Dirty marks live in memory only. Marks lost to a crash are covered by
+ * the reconcile pass at startup; on shutdown everything pending is
+ * recomputed.
+ */
+@Service
+public class RatingRecomputeQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingRecomputeQueue.class);
+
+    @Autowired
+    private ProductRatingReconciler reconciler;
+
+    @Value("${ecommerce.ratings.coalesce:true}")
+    private boolean enabled;
+
+    @Value("${ecommerce.ratings.coalesce-window-ms:500}")
+    private long windowMillis;
+
+    @Value("${ecommerce.ratings.max-staleness-ms:5000}")
+    private long maxStalenessMillis;
+
+    @Value("${ecommerce.ratings.recompute-batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, Dirty> dirty = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter changes;
+    private final Counter recomputes;
+    private final Counter collapsed;
+    private final Timer staleness;
+
+    public RatingRecomputeQueue(MeterRegistry meterRegistry) {
+        this.changes = meterRegistry.counter("ecommerce.ratings.changes");
+        this.recomputes = meterRegistry.counter("ecommerce.ratings.recomputes");
+        this.collapsed = Counter.builder("ecommerce.ratings.recomputes.collapsed")
+                .description("Review changes folded into another change's recompute")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("ecommerce.ratings.staleness")
+                .description("Time from a product's first pending review change until its recompute")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ecommerce.ratings.dirty", dirty, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark a product's rating for recompute once the current transaction
+     * commits, or right away if there is none.
+     */
+    public void markDirty(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mark(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mark(productId);
+            }
+        });
+    }
+
+    private void mark(Long productId) {
+        long now = System.nanoTime();
+        changes.increment();
+        dirty.compute(productId, (id, pending) -> {
+            if (pending == null) {
+                return new Dirty(now);
+            }
+            pending.lastChange = now;
+            pending.marks++;
+            return pending;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.ratings.coalesce-check-ms:100}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled) {
+            flush(true);
+        }
+    }
+
+    /**
+     * Recompute every dirty product that is due, or all of them.
+     *
+     * @return number of products recomputed
+     */
+    public int flush(boolean all) {
+        flushLock.lock();
+        try {
+            long now = System.nanoTime();
+            long window = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+            long maxStaleness = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+            List<Long> due = new ArrayList<>();
+            List<Dirty> taken = new ArrayList<>();
+            for (Map.Entry<Long, Dirty> entry : dirty.entrySet()) {
+                Dirty pending = entry.getValue();
+                if (!all && now - pending.lastChange < window && now - pending.firstChange < maxStaleness) {
+                    continue;
+                }
+                // A change marked after this removal starts a new entry and a later recompute
+                if (dirty.remove(entry.getKey(), pending)) {
+                    due.add(entry.getKey());
+                    taken.add(pending);
+                }
+            }
+
+            for (int from = 0; from < due.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, due.size());
+                List<Long> batch = due.subList(from, to);
+                try {
+                    reconciler.recompute(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Rating recompute of {} products failed, retrying later: {}", batch.size(), e.getMessage());
+                    for (int i = from; i < to; i++) {
+                        restore(due.get(i), taken.get(i));
+                    }
+                    continue;
+                }
+                long recomputed = System.nanoTime();
+                for (int i = from; i < to; i++) {
+                    Dirty pending = taken.get(i);
+                    collapsed.increment(pending.marks - 1);
+                    staleness.record(recomputed - pending.firstChange, TimeUnit.NANOSECONDS);
+                }
+                recomputes.increment(batch.size());
+            }
+            if (!due.isEmpty()) {
+                log.debug("Recomputed ratings of {} products", due.size());
+            }
+            return due.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Put back a mark taken by a failed recompute, merging it with any
+     * change marked since.
+     */
+    private void restore(Long productId, Dirty failed) {
+        dirty.merge(productId, failed, (current, previous) -> {
+            current.firstChange = Math.min(current.firstChange, previous.firstChange);
+            current.marks += previous.marks;
+            return current;
+        });
+    }
+
+    /**
+     * Pending changes of one product. Only mutated inside
+     * {@link ConcurrentHashMap#compute} / {@code merge} for its key.
+     */
+    private static final class Dirty {
+
+        volatile long firstChange;
+        volatile long lastChange;
+        volatile int marks = 1;
+
+        Dirty(long now) {
+            this.firstChange = now;
+            this.lastChange = now;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped HTML of rendered storefront pages, keyed by route and query string.
+ * Entries become stale when their TTL passes or when a product or category
+ * mutation bumps the cache generation; stale entries may still be served
+ * for up to {@code max-stale} while a single request re-renders them.
+ */
+@Component
+public class RenderedPageCache {
+
+    private final Cache<String, Page> pages;
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+
+    public RenderedPageCache(@Value("${ecommerce.page-cache.max-entries:200}") long maxEntries,
+                             @Value("${ecommerce.page-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${ecommerce.page-cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        this.pages = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(maxStaleSeconds);
+    }
+
+    /**
+     * @return the cached page, fresh or stale, or null if there is none or it is too old to serve
+     */
+    public Page get(String key) {
+        Page page = pages.getIfPresent(key);
+        if (page == null) {
+            return null;
+        }
+        if (System.nanoTime() - page.renderedAt > ttlNanos + maxStaleNanos) {
+            pages.asMap().remove(key, page);
+            return null;
+        }
+        return page;
+    }
+
+    public boolean isFresh(Page page) {
+        return page.generation == generation.get() && System.nanoTime() - page.renderedAt <= ttlNanos;
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before rendering so a
+     * mutation that lands mid-render leaves the new entry stale.
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void put(String key, long renderedGeneration, String contentType, byte[] html) {
+        pages.put(key, new Page(renderedGeneration, System.nanoTime(), contentType, html.length, gzip(html)));
+    }
+
+    /**
+     * Mark every cached page stale. Called on product and category mutations.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    private static byte[] gzip(byte[] html) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, html.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(html);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A rendered page, stored gzipped.
+     */
+    public static class Page {
+
+        private final long generation;
+        private final long renderedAt;
+        private final String contentType;
+        private final int length;
+        private final byte[] gzipped;
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        Page(long generation, long renderedAt, String contentType, int length, byte[] gzipped) {
+            this.generation = generation;
+            this.renderedAt = renderedAt;
+            this.contentType = contentType;
+            this.length = length;
+            this.gzipped = gzipped;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /** Uncompressed length in bytes. */
+        public int getLength() {
+            return length;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        /**
+         * Claim the re-render of this stale page; only the first caller wins.
+         */
+        public boolean tryStartRevalidation() {
+            return revalidating.compareAndSet(false, true);
+        }
+
+        public void revalidationFailed() {
+            revalidating.set(false);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.ecommerce.entity.User;
 import com.ecommerce.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,7 +14,12 @@ import java.util.Optional;
 /**
  * Service layer for reviews. Encapsulates business logic for creating,
  * retrieving, updating and deleting reviews, as well as computing
- * average ratings for products.
+ * average ratings for products. Each change is applied to the product's
+ * running rating sum and counts as a delta, or with
+ * {@code ecommerce.ratings.coalesce} marks the product for a batched
+ * recompute by {@link RatingRecomputeQueue};
+ * {@link ProductRatingReconciler} periodically checks the stored values
+ * against the full aggregate.
  */
 @Service
 public class ReviewService {
@@ -24,6 +30,9 @@ public class ReviewService {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private RatingRecomputeQueue ratingQueue;
+
     public List<Review> getAllReviews() {
         return reviewRepository.findAll();
     }
@@ -48,45 +57,82 @@ public class ReviewService {
         return reviewRepository.findByUserId(userId);
     }
 
+    /**
+     * Save a review and update the product's rating in the same
+     * transaction, or mark it for a coalesced recompute.
+     */
+    @Transactional
     public Review createReview(Review review) {
         Review savedReview = reviewRepository.save(review);
-        
-        // Update product rating after creating a review
+
         if (review.getProduct() != null) {
-            productService.updateProductRating(review.getProduct().getId());
+            Double rating = review.getRating();
+            if (ratingChanged(review.getProduct().getId(),
+                    rating != null ? rating : 0.0, rating != null ? 1 : 0, 1)) {
+                // The rating UPDATE cleared the persistence context; hand back a managed copy
+                return reviewRepository.findById(savedReview.getId()).orElse(savedReview);
+            }
         }
-        
+
         return savedReview;
     }
 
+    /**
+     * Change a review's rating and comment. The review row is locked so
+     * that the delta applied to the product is taken against the rating
+     * the previous edit left.
+     */
+    @Transactional
     public Review updateReview(Long id, Review data) {
-        return reviewRepository.findById(id).map(review -> {
+        return reviewRepository.findByIdForUpdate(id).map(review -> {
+            Double oldRating = review.getRating();
             review.setRating(data.getRating());
             review.setComment(data.getComment());
             Review updatedReview = reviewRepository.save(review);
-            
-            // Update product rating after updating a review
+
             if (review.getProduct() != null) {
-                productService.updateProductRating(review.getProduct().getId());
+                Double newRating = review.getRating();
+                if (ratingChanged(review.getProduct().getId(),
+                        (newRating != null ? newRating : 0.0) - (oldRating != null ? oldRating : 0.0),
+                        (newRating != null ? 1 : 0) - (oldRating != null ? 1 : 0), 0)) {
+                    return reviewRepository.findById(id).orElse(updatedReview);
+                }
             }
-            
+
             return updatedReview;
         }).orElseThrow(() -> new RuntimeException("Review not found"));
     }
 
+    @Transactional
     public void deleteReview(Long id) {
-        Optional<Review> reviewOpt = reviewRepository.findById(id);
+        Optional<Review> reviewOpt = reviewRepository.findByIdForUpdate(id);
         if (reviewOpt.isPresent()) {
             Review review = reviewOpt.get();
-            reviewRepository.deleteById(id);
-            
-            // Update product rating after deleting a review
-            if (review.getProduct() != null) {
-                productService.updateProductRating(review.getProduct().getId());
+            Long productId = review.getProduct() != null ? review.getProduct().getId() : null;
+            Double rating = review.getRating();
+            reviewRepository.delete(review);
+
+            if (productId != null) {
+                ratingChanged(productId, rating != null ? -rating : 0.0, rating != null ? -1 : 0, -1);
             }
         }
     }
 
+    /**
+     * Apply a review change to the product's rating: queue a recompute when
+     * coalescing, otherwise apply the delta now.
+     *
+     * @return true if the delta was applied now, which clears the persistence context
+     */
+    private boolean ratingChanged(Long productId, double sumDelta, int ratedDelta, int reviewDelta) {
+        if (ratingQueue.isEnabled()) {
+            ratingQueue.markDirty(productId);
+            return false;
+        }
+        productService.applyRatingDelta(productId, sumDelta, ratedDelta, reviewDelta);
+        return true;
+    }
+
     public Double getAverageRating(Long productId) {
         Double avg = reviewRepository.findAverageRatingByProductId(productId);
         return avg != null ? avg : 0.0;
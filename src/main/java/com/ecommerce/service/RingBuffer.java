@@ -0,0 +1,116 @@
+package com.ecommerce.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue over a power-of-two array of slots. Each slot
+ * carries a sequence number telling producers and consumers whose turn it
+ * is, so both sides claim slots with a single compare-and-set and never
+ * block; {@link #offer} fails instead of waiting when the buffer is full.
+ */
+final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity minimum number of slots; rounded up to a power of two,
+     *                 and to at least 2: with a single slot, a published
+     *                 item's sequence is also the next lap's "free" sequence
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        size = Math.max(size, 2);
+        this.mask = size - 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(E item) {
+        long position = tail.get();
+        for (;;) {
+            int slot = (int) position & mask;
+            long turn = sequences.get(slot) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.set(slot, item);
+                    // Publishes the item to consumers
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (turn < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest item, or null if the buffer is empty
+     */
+    E poll() {
+        long position = head.get();
+        for (;;) {
+            int slot = (int) position & mask;
+            long turn = sequences.get(slot) - (position + 1);
+            if (turn == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E item = items.get(slot);
+                    items.set(slot, null);
+                    // Hands the slot back to producers for the next lap
+                    sequences.set(slot, position + mask + 1);
+                    return item;
+                }
+                position = head.get();
+            } else if (turn < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code max} items into {@code into}, oldest first.
+     *
+     * @return number of items moved
+     */
+    int drainTo(List<E> into, int max) {
+        int drained = 0;
+        E item;
+        while (drained < max && (item = poll()) != null) {
+            into.add(item);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,373 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.SalesReport;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pre-aggregated sales rollups: revenue, units and order count per day,
+ * overall, per category and per product. Each series is three primitive
+ * arrays indexed by day, so a report over a date range is a loop over at
+ * most a few hundred array slots per series, never a scan of the orders.
+ * <p>
+ * {@link OrderService} reports placements, status changes and deletions,
+ * and each is applied once its transaction commits. Cancelled orders do
+ * not count, so cancelling subtracts an order and un-cancelling adds it
+ * back. Days are the order's local date; revenue is kept in cents.
+ * {@link #rebuild()} recomputes everything from the live and archived
+ * order tables at startup or on demand; orders that commit while a rebuild is scanning
+ * may be missed or counted twice until the next one.
+ */
+@Service
+public class SalesAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    private static final String LINES_SQL =
+            "SELECT o.id, o.order_date, i.product_id, p.category_id, i.quantity, i.price "
+                    + "FROM orders o JOIN order_items i ON i.order_id = o.id "
+                    + "LEFT JOIN products p ON p.id = i.product_id ";
+
+    /** Archived orders still count; their IDs never overlap the hot table's. */
+    private static final String ARCHIVED_LINES_SQL =
+            "SELECT o.id, o.order_date, i.product_id, p.category_id, i.quantity, i.price "
+                    + "FROM orders_archive o JOIN order_items_archive i ON i.order_id = o.id "
+                    + "LEFT JOIN products p ON p.id = i.product_id ";
+
+    /** Longest range a day-by-day report may span. */
+    public static final int MAX_REPORT_DAYS = 3660;
+
+    public enum GroupBy {
+        DAY, CATEGORY, PRODUCT
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Rollup rollup = new Rollup();
+
+    /**
+     * Recompute all rollups from the order tables and swap them in.
+     *
+     * @return number of orders aggregated
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        Rollup fresh = new Rollup();
+        List<Line> order = new ArrayList<>();
+        int[] orders = new int[1];
+        for (String sql : new String[]{ARCHIVED_LINES_SQL, LINES_SQL}) {
+            jdbcTemplate.query(sql + "WHERE o.status <> 'CANCELLED' ORDER BY o.id", rs -> {
+                Line line = line(rs);
+                if (!order.isEmpty() && order.get(0).orderId != line.orderId) {
+                    fresh.apply(order, 1);
+                    orders[0]++;
+                    order.clear();
+                }
+                order.add(line);
+            });
+            if (!order.isEmpty()) {
+                fresh.apply(order, 1);
+                orders[0]++;
+                order.clear();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            rollup = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Rebuilt sales rollups from {} orders in {} ms", orders[0], System.currentTimeMillis() - start);
+        return orders[0];
+    }
+
+    /**
+     * Count a newly created order once its transaction commits. Call after
+     * the order has been saved.
+     */
+    public void orderPlaced(Order order) {
+        if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getOrderDate() == null) {
+            return;
+        }
+        long day = order.getOrderDate().toLocalDate().toEpochDay();
+        List<Line> lines = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            Long categoryId = item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null;
+            lines.add(new Line(order.getId(), day, item.getProduct().getId(), categoryId,
+                    item.getQuantity(), cents(item.getPrice(), item.getQuantity())));
+        }
+        applyAfterCommit(lines, 1);
+    }
+
+    /**
+     * Adjust for a status change once its transaction commits: only moves
+     * into or out of {@code CANCELLED} change the figures.
+     */
+    public void statusChanged(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        boolean counted = from != Order.OrderStatus.CANCELLED;
+        if (counted != (to != Order.OrderStatus.CANCELLED)) {
+            applyAfterCommit(loadLines(orderId), counted ? -1 : 1);
+        }
+    }
+
+    /**
+     * Uncount an order that is about to be deleted, once the deletion
+     * commits. Must be called before the order's rows are gone.
+     */
+    public void orderDeleted(Long orderId, Order.OrderStatus status) {
+        if (status != Order.OrderStatus.CANCELLED) {
+            applyAfterCommit(loadLines(orderId), -1);
+        }
+    }
+
+    /**
+     * Sales between {@code from} and {@code to}, inclusive.
+     *
+     * @param groupBy    one row per day, per category or per product
+     * @param categoryId for day rows, restrict to one category
+     * @param productId  for day rows, restrict to one product (takes precedence over the category)
+     * @param limit      for category and product rows, how many to return, highest revenue first
+     * @throws IllegalArgumentException if the range is empty or longer than {@link #MAX_REPORT_DAYS}
+     */
+    public SalesReport report(LocalDate from, LocalDate to, GroupBy groupBy, Long categoryId, Long productId, int limit) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (last < first || last - first >= MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("Date range must span 1 to " + MAX_REPORT_DAYS + " days");
+        }
+        SalesReport report = new SalesReport(from, to, groupBy.name().toLowerCase());
+        long[] sums = new long[3];
+        lock.readLock().lock();
+        try {
+            Series selected = rollup.total;
+            if (productId != null) {
+                selected = rollup.byProduct.get(productId);
+            } else if (categoryId != null) {
+                selected = rollup.byCategory.get(categoryId);
+            }
+
+            if (groupBy == GroupBy.DAY) {
+                long[] day = new long[3];
+                for (long d = first; d <= last; d++) {
+                    Arrays.fill(day, 0);
+                    if (selected != null) {
+                        selected.sum(d, d, day);
+                    }
+                    report.getRows().add(row(LocalDate.ofEpochDay(d).toString(), day));
+                }
+            } else {
+                Map<Long, Series> series = groupBy == GroupBy.CATEGORY ? rollup.byCategory : rollup.byProduct;
+                List<long[]> ranked = new ArrayList<>();
+                for (Map.Entry<Long, Series> entry : series.entrySet()) {
+                    long[] figures = new long[4];
+                    entry.getValue().sum(first, last, figures);
+                    if (figures[1] > 0) {
+                        figures[3] = entry.getKey();
+                        ranked.add(figures);
+                    }
+                }
+                ranked.sort(Comparator.comparingLong((long[] f) -> f[0]).reversed());
+                for (int i = 0; i < ranked.size() && i < limit; i++) {
+                    report.getRows().add(row(String.valueOf(ranked.get(i)[3]), ranked.get(i)));
+                }
+            }
+            if (selected != null) {
+                selected.sum(first, last, sums);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        report.setTotals(row(null, sums));
+        return report;
+    }
+
+    private void applyAfterCommit(List<Line> lines, int sign) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(lines, sign);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(lines, sign);
+            }
+        });
+    }
+
+    private void apply(List<Line> lines, int sign) {
+        lock.writeLock().lock();
+        try {
+            rollup.apply(lines, sign);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Line> loadLines(Long orderId) {
+        return jdbcTemplate.query(LINES_SQL + "WHERE o.id = ?", (rs, rowNum) -> line(rs), orderId);
+    }
+
+    private static Line line(ResultSet rs) throws SQLException {
+        Timestamp orderDate = rs.getTimestamp(2);
+        long categoryId = rs.getLong(4);
+        Long category = rs.wasNull() ? null : categoryId;
+        int quantity = rs.getInt(5);
+        return new Line(rs.getLong(1), orderDate.toLocalDateTime().toLocalDate().toEpochDay(),
+                rs.getLong(3), category, quantity, cents(rs.getBigDecimal(6), quantity));
+    }
+
+    private static long cents(BigDecimal price, int quantity) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() * quantity;
+    }
+
+    private static SalesReport.Row row(String key, long[] figures) {
+        return new SalesReport.Row(key, BigDecimal.valueOf(figures[0], 2), figures[1], figures[2]);
+    }
+
+    /**
+     * One order line, reduced to what the rollups need.
+     */
+    private static final class Line {
+        final long orderId;
+        final long day;
+        final long productId;
+        final Long categoryId;
+        final int quantity;
+        final long cents;
+
+        Line(long orderId, long day, long productId, Long categoryId, int quantity, long cents) {
+            this.orderId = orderId;
+            this.day = day;
+            this.productId = productId;
+            this.categoryId = categoryId;
+            this.quantity = quantity;
+            this.cents = cents;
+        }
+    }
+
+    /**
+     * All series. Guarded by the enclosing lock.
+     */
+    private static final class Rollup {
+        final Series total = new Series();
+        final Map<Long, Series> byCategory = new HashMap<>();
+        final Map<Long, Series> byProduct = new HashMap<>();
+
+        /**
+         * Add ({@code sign} 1) or remove (-1) one order, given all its lines.
+         */
+        void apply(List<Line> lines, int sign) {
+            long day = lines.get(0).day;
+            long cents = 0;
+            long units = 0;
+            Set<Long> categories = new HashSet<>();
+            Set<Long> products = new HashSet<>();
+            for (Line line : lines) {
+                cents += line.cents;
+                units += line.quantity;
+                // Each category and product counts the order once, however many lines it has
+                int orders = products.add(line.productId) ? sign : 0;
+                byProduct.computeIfAbsent(line.productId, k -> new Series())
+                        .add(day, sign * line.cents, sign * line.quantity, orders);
+                if (line.categoryId != null) {
+                    orders = categories.add(line.categoryId) ? sign : 0;
+                    byCategory.computeIfAbsent(line.categoryId, k -> new Series())
+                            .add(day, sign * line.cents, sign * line.quantity, orders);
+                }
+            }
+            total.add(day, sign * cents, sign * units, sign);
+        }
+    }
+
+    /**
+     * Daily figures in parallel arrays; slot {@code i} is epoch day
+     * {@code firstDay + i}. Grows in either direction as needed.
+     */
+    private static final class Series {
+        private long firstDay;
+        private long[] cents = new long[0];
+        private long[] units = new long[0];
+        private int[] orders = new int[0];
+
+        void add(long day, long deltaCents, long deltaUnits, int deltaOrders) {
+            int slot = slot(day);
+            cents[slot] += deltaCents;
+            units[slot] += deltaUnits;
+            orders[slot] += deltaOrders;
+        }
+
+        /**
+         * Add revenue, units and orders between two epoch days (inclusive)
+         * to {@code into[0..2]}.
+         */
+        void sum(long fromDay, long toDay, long[] into) {
+            int start = (int) Math.max(0, fromDay - firstDay);
+            int end = (int) Math.min(cents.length - 1L, toDay - firstDay);
+            for (int i = start; i <= end; i++) {
+                into[0] += cents[i];
+                into[1] += units[i];
+                into[2] += orders[i];
+            }
+        }
+
+        private int slot(long day) {
+            if (cents.length == 0) {
+                firstDay = day;
+                resize(day, 32);
+            } else if (day < firstDay) {
+                // Keep some room before the new first day as well
+                resize(day - 31, (int) (firstDay + cents.length - (day - 31)));
+            } else if (day >= firstDay + cents.length) {
+                resize(firstDay, (int) Math.max(cents.length * 2L, day - firstDay + 1));
+            }
+            return (int) (day - firstDay);
+        }
+
+        private void resize(long newFirstDay, int length) {
+            int offset = (int) (firstDay - newFirstDay);
+            long[] newCents = new long[length];
+            long[] newUnits = new long[length];
+            int[] newOrders = new int[length];
+            System.arraycopy(cents, 0, newCents, offset, cents.length);
+            System.arraycopy(units, 0, newUnits, offset, units.length);
+            System.arraycopy(orders, 0, newOrders, offset, orders.length);
+            firstDay = newFirstDay;
+            cents = newCents;
+            units = newUnits;
+            orders = newOrders;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.Suggestion;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prefix trie over product and category names for search-as-you-type.
+ * Every node caches the best suggestions of its subtree, so a lookup is a
+ * walk down the typed prefix and never touches the database. Names are
+ * also indexed from each word onwards, so "blue" finds
+ * "Wireless Bluetooth Headphones" as well as names starting with it.
+ * Reads are lock-free; writers are serialized.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Comparator<Suggestion> BY_WEIGHT = (a, b) -> {
+        int byWeight = Double.compare(b.getWeight(), a.getWeight());
+        return byWeight != 0 ? byWeight : a.getText().compareTo(b.getText());
+    };
+
+    /** Categories rank like a well-reviewed five-star product. */
+    private static final double CATEGORY_WEIGHT = 5 * Math.log(2 + 100);
+
+    private final int maxResults;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public SuggestionIndex(@Value("${ecommerce.suggest.max-results:10}") int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Best suggestions for a typed prefix.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        Suggestion[] top = node.top;
+        return Arrays.asList(Arrays.copyOf(top, Math.min(top.length, Math.max(0, limit))));
+    }
+
+    public synchronized void indexProducts(Collection<Product> products) {
+        for (Product product : products) {
+            indexProduct(product);
+        }
+    }
+
+    public synchronized void indexCategories(Collection<Category> categories) {
+        for (Category category : categories) {
+            indexCategory(category);
+        }
+    }
+
+    public synchronized void indexProduct(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        put(new Suggestion(Suggestion.Type.PRODUCT, product.getId(), product.getName(), weightOf(product)));
+    }
+
+    public synchronized void indexCategory(Category category) {
+        if (category == null || category.getId() == null) {
+            return;
+        }
+        if (!category.isActive()) {
+            remove(Suggestion.Type.CATEGORY, category.getId());
+            return;
+        }
+        put(new Suggestion(Suggestion.Type.CATEGORY, category.getId(), category.getName(), CATEGORY_WEIGHT));
+    }
+
+    public synchronized void removeProduct(Long productId) {
+        remove(Suggestion.Type.PRODUCT, productId);
+    }
+
+    public synchronized void removeCategory(Long categoryId) {
+        remove(Suggestion.Type.CATEGORY, categoryId);
+    }
+
+    private static double weightOf(Product product) {
+        double rating = product.getRating() != null ? product.getRating() : 0.0;
+        int reviews = product.getReviewCount() != null ? product.getReviewCount() : 0;
+        return rating * Math.log(2 + reviews) + (product.isFeatured() ? 1 : 0);
+    }
+
+    private void put(Suggestion suggestion) {
+        String id = suggestion.getType() + ":" + suggestion.getId();
+        Entry existing = entries.get(id);
+        if (existing != null && existing.suggestion.getWeight() == suggestion.getWeight()
+                && existing.suggestion.getText().equals(suggestion.getText())) {
+            return;
+        }
+        if (existing != null) {
+            remove(suggestion.getType(), suggestion.getId());
+        }
+        if (suggestion.getText() == null || normalize(suggestion.getText()).isEmpty()) {
+            return;
+        }
+
+        Entry entry = new Entry(suggestion, keysFor(suggestion.getText()));
+        entries.put(id, entry);
+        for (String key : entry.keys) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                node.offer(suggestion, maxResults);
+            }
+            node.terminals.add(suggestion);
+        }
+    }
+
+    private void remove(Suggestion.Type type, Long id) {
+        Entry entry = entries.remove(type + ":" + id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            // Collect the path first, then repair cached top lists bottom-up
+            List<Node> path = new ArrayList<>(key.length());
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            path.get(path.size() - 1).terminals.remove(entry.suggestion);
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node current = path.get(i);
+                current.refill(maxResults);
+                if (current.top.length == 0) {
+                    Node parent = i == 0 ? root : path.get(i - 1);
+                    parent.children.remove(key.charAt(i));
+                }
+            }
+        }
+    }
+
+    private static Set<String> keysFor(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static class Entry {
+
+        private final Suggestion suggestion;
+        private final Set<String> keys;
+
+        Entry(Suggestion suggestion, Set<String> keys) {
+            this.suggestion = suggestion;
+            this.keys = keys;
+        }
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> children = new ConcurrentHashMap<>();
+        /** Suggestions whose key ends at this node. Only touched by writers. */
+        private final Set<Suggestion> terminals = new LinkedHashSet<>();
+        /** Best suggestions in this subtree, replaced wholesale so readers never see a partial update. */
+        private volatile Suggestion[] top = new Suggestion[0];
+
+        void offer(Suggestion suggestion, int maxResults) {
+            Suggestion[] current = top;
+            for (Suggestion existing : current) {
+                if (existing == suggestion) {
+                    return;
+                }
+            }
+            if (current.length >= maxResults && BY_WEIGHT.compare(suggestion, current[current.length - 1]) >= 0) {
+                return;
+            }
+            List<Suggestion> merged = new ArrayList<>(Arrays.asList(current));
+            merged.add(suggestion);
+            merged.sort(BY_WEIGHT);
+            top = merged.subList(0, Math.min(merged.size(), maxResults)).toArray(new Suggestion[0]);
+        }
+
+        void refill(int maxResults) {
+            Set<Suggestion> candidates = new LinkedHashSet<>(terminals);
+            for (Node child : children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            List<Suggestion> merged = new ArrayList<>(candidates);
+            merged.sort(BY_WEIGHT);
+            top = merged.subList(0, Math.min(merged.size(), maxResults)).toArray(new Suggestion[0]);
+        }
+    }
+}
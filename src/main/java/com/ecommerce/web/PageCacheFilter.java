@@ -0,0 +1,187 @@
+package com.ecommerce.web;
+
+import com.ecommerce.service.RenderedPageCache;
+import com.ecommerce.service.RenderedPageCache.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves the storefront pages ({@code /}, {@code /products},
+ * {@code /categories}) from {@link RenderedPageCache}, so a hit never reaches
+ * the controller, JPA or Thymeleaf. A stale page is sent immediately and the
+ * request that claimed the refresh then re-renders it after the response
+ * has been flushed (stale-while-revalidate).
+ */
+@Component
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCacheFilter.class);
+
+    private static final String CACHE_HEADER = "X-Page-Cache";
+
+    @Autowired
+    private RenderedPageCache pageCache;
+
+    @Value("${ecommerce.page-cache.enabled:true}")
+    private boolean enabled;
+
+    private final Set<String> paths;
+
+    public PageCacheFilter(@Value("${ecommerce.page-cache.paths:/,/products,/categories}") String[] paths) {
+        this.paths = new HashSet<>(Arrays.asList(paths));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"GET".equals(request.getMethod())
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        Page page = pageCache.get(key);
+        if (page != null && pageCache.isFresh(page)) {
+            write(page, "HIT", request, response);
+            return;
+        }
+        if (page != null) {
+            boolean revalidate = page.tryStartRevalidation();
+            write(page, "STALE", request, response);
+            if (revalidate) {
+                response.flushBuffer();
+                try {
+                    RevalidationResponse rendered = new RevalidationResponse(response);
+                    if (!render(key, request, rendered, chain)) {
+                        // Let a later request try again instead of serving this page until it expires
+                        page.revalidationFailed();
+                        log.debug("Re-render of {} returned status {} ({}), keeping stale page", key,
+                                rendered.getStatus(), rendered.getContentType());
+                    }
+                } catch (IOException | ServletException | RuntimeException e) {
+                    page.revalidationFailed();
+                    log.debug("Re-render of {} failed, keeping stale page: {}", key, e.getMessage());
+                }
+            }
+            return;
+        }
+
+        response.setHeader(CACHE_HEADER, "MISS");
+        ContentCachingResponseWrapper rendered = new ContentCachingResponseWrapper(response);
+        render(key, request, rendered, chain);
+        rendered.copyBodyToResponse();
+    }
+
+    /**
+     * Run the controller and view into {@code wrapper}'s buffer and cache
+     * the result if it is a successful HTML page.
+     *
+     * @return whether the page was cached
+     */
+    private boolean render(String key, HttpServletRequest request, ContentCachingResponseWrapper wrapper,
+                           FilterChain chain) throws IOException, ServletException {
+        long generation = pageCache.currentGeneration();
+        chain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK
+                && contentType != null && contentType.startsWith("text/html")) {
+            pageCache.put(key, generation, contentType, wrapper.getContentAsByteArray());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Buffer for a re-render behind an already committed stale response.
+     * The servlet container ignores status and content type changes once
+     * the response is committed, so they are tracked here instead, and an
+     * error status is recorded rather than sent: nothing of the re-render
+     * reaches the client.
+     */
+    private static final class RevalidationResponse extends ContentCachingResponseWrapper {
+
+        private int status = HttpServletResponse.SC_OK;
+        private String contentType;
+
+        RevalidationResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendError(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendError(int status, String message) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private void write(Page page, String outcome, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(page.getContentType());
+        response.setHeader(CACHE_HEADER, outcome);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(page.getGzipped().length);
+            response.getOutputStream().write(page.getGzipped());
+        } else {
+            response.setContentLength(page.getLength());
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(page.getGzipped()))) {
+                StreamUtils.copy(in, response.getOutputStream());
+            }
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+}
@@ -4,12 +4,12 @@
 -- ============================================
 -- CATEGORIES
 -- ============================================
-INSERT INTO categories (id, name, description) VALUES
-(1, 'Electronics', 'Latest electronic gadgets and devices'),
-(2, 'Fashion', 'Trendy clothing and accessories'),
-(3, 'Home & Garden', 'Everything for your home and garden'),
-(4, 'Sports & Outdoors', 'Sports equipment and outdoor gear'),
-(5, 'Books', 'Books, magazines, and reading materials');
+INSERT INTO categories (id, name, description, is_active) VALUES
+(1, 'Electronics', 'Latest electronic gadgets and devices', true),
+(2, 'Fashion', 'Trendy clothing and accessories', true),
+(3, 'Home & Garden', 'Everything for your home and garden', true),
+(4, 'Sports & Outdoors', 'Sports equipment and outdoor gear', true),
+(5, 'Books', 'Books, magazines, and reading materials', true);
 
 -- ============================================
 -- PRODUCTS
@@ -50,6 +50,15 @@ INSERT INTO products (id, name, description, price, stock_quantity, is_featured,
 (24, 'Business Strategy Guide', 'Essential strategies for business success', 44.99, 45, false, 5),
 (25, 'Travel Photography', 'Tips and techniques for stunning travel photos', 39.99, 55, true, 5);
 
+-- Seeded products start unrated; give them explicit aggregates and staggered
+-- creation times so the NOT NULL keyset sort columns hold real values
+UPDATE products SET rating = 0.0, rating_sum = 0.0, rating_count = 0, review_count = 0,
+    created_at = DATEADD('MINUTE', id, TIMESTAMP '2024-01-01 00:00:00'),
+    updated_at = DATEADD('MINUTE', id, TIMESTAMP '2024-01-01 00:00:00');
+
+-- Product IDs come from a pooled sequence; start it after the seeded rows
+ALTER SEQUENCE product_seq RESTART WITH 26;
+
 -- ============================================
 -- USERS
 -- ============================================
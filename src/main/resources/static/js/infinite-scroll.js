@@ -0,0 +1,128 @@
+/*
+ * Infinite scroll for the /products page. The server renders the first
+ * page; when the "Load more" block comes into view the next page is fetched
+ * from /api/products/cursor and appended as product cards.
+ */
+(function () {
+    'use strict';
+
+    var loadMore = document.getElementById('load-more');
+    var grid = document.getElementById('product-grid');
+    if (!loadMore || !grid || !window.fetch) {
+        return;
+    }
+
+    var loading = false;
+
+    function abbreviate(text, max) {
+        if (!text || text.length <= max) {
+            return text || '';
+        }
+        return text.substring(0, max - 3) + '...';
+    }
+
+    function productCard(product) {
+        var card = document.createElement('article');
+        card.className = 'product-card';
+
+        var placeholder = document.createElement('div');
+        placeholder.className = 'product-placeholder';
+        var icon = document.createElement('span');
+        icon.className = 'product-icon';
+        icon.textContent = '📦';
+        placeholder.appendChild(icon);
+        card.appendChild(placeholder);
+
+        var name = document.createElement('h3');
+        name.textContent = product.name;
+        card.appendChild(name);
+
+        var description = document.createElement('p');
+        description.textContent = abbreviate(product.description, 100);
+        card.appendChild(description);
+
+        var price = document.createElement('div');
+        price.className = 'price';
+        price.appendChild(document.createTextNode('€'));
+        var amount = document.createElement('span');
+        amount.textContent = product.price;
+        price.appendChild(amount);
+        card.appendChild(price);
+
+        var link = document.createElement('a');
+        link.className = 'view-button';
+        link.href = '/product/' + encodeURIComponent(product.id);
+        link.setAttribute('aria-label', 'View product details');
+        link.textContent = 'View Details';
+        card.appendChild(link);
+
+        return card;
+    }
+
+    function loadNextPage() {
+        var cursor = loadMore.getAttribute('data-next-cursor');
+        if (loading || !cursor) {
+            return;
+        }
+        loading = true;
+        loadMore.classList.add('loading');
+
+        var url = '/api/products/cursor'
+            + '?sortBy=' + encodeURIComponent(loadMore.getAttribute('data-sort-by'))
+            + '&sortDir=' + encodeURIComponent(loadMore.getAttribute('data-sort-dir'))
+            + '&size=' + encodeURIComponent(loadMore.getAttribute('data-page-size'))
+            + '&cursor=' + encodeURIComponent(cursor);
+
+        fetch(url, { headers: { 'Accept': 'application/json' } })
+            .then(function (response) {
+                if (!response.ok) {
+                    throw new Error('HTTP ' + response.status);
+                }
+                return response.json();
+            })
+            .then(function (page) {
+                var fragment = document.createDocumentFragment();
+                page.content.forEach(function (product) {
+                    fragment.appendChild(productCard(product));
+                });
+                grid.appendChild(fragment);
+
+                if (page.hasNext) {
+                    loadMore.setAttribute('data-next-cursor', page.nextCursor);
+                    loadMore.querySelector('a').href = '/products?cursor=' + encodeURIComponent(page.nextCursor);
+                    if (observer) {
+                        // Re-observing reports the current intersection, so a still-visible block loads again
+                        observer.unobserve(loadMore);
+                        observer.observe(loadMore);
+                    }
+                } else {
+                    loadMore.parentNode.removeChild(loadMore);
+                    if (observer) {
+                        observer.disconnect();
+                    }
+                }
+            })
+            .catch(function () {
+                // Leave the "Load more" link in place so the visitor can retry
+            })
+            .then(function () {
+                loading = false;
+                loadMore.classList.remove('loading');
+            });
+    }
+
+    var observer = null;
+    if ('IntersectionObserver' in window) {
+        observer = new IntersectionObserver(function (entries) {
+            if (entries[0].isIntersecting) {
+                loadNextPage();
+            }
+        }, { rootMargin: '400px 0px' });
+        observer.observe(loadMore);
+    }
+
+    loadMore.querySelector('a').addEventListener('click', function (event) {
+        event.preventDefault();
+        loadNextPage();
+    });
+})();
@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link OrderStockStressTest} with stock taken by conditional {@code UPDATE}s on
+ * {@code products}.
+ */
+@SpringBootTest(properties = {
+        "ecommerce.inventory.mode=database",
+        "spring.datasource.url=jdbc:h2:mem:stress_database;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "ecommerce.event-log.enabled=false"
+})
+class DatabaseOrderStockStressTest extends OrderStockStressTest {
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.LogEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLogTest {
+
+    /** Records per segment at the smallest segment size of 1 MB. */
+    private static final int SEGMENT_RECORDS = 1024 * 1024 / EventLog.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private final List<EventLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeLogs() throws Exception {
+        for (EventLog eventLog : opened) {
+            eventLog.close();
+        }
+    }
+
+    @Test
+    void reopenResumesAfterTheLastRecord() throws Exception {
+        EventLog first = open();
+        appendStock(first, 5);
+        first.close();
+
+        EventLog second = open();
+        assertEquals(5, second.getLastSequence());
+        appendStock(second, 1);
+        assertSequences(second.read(0, 100, 0), 1, 6);
+    }
+
+    @Test
+    void recoverStopsBeforeATornLastRecord() throws Exception {
+        EventLog first = open();
+        appendStock(first, 5);
+        first.close();
+
+        // A crash mid-write: the last record has its fields but a checksum that does not match
+        corrupt(segment(1), 4, 20, new byte[]{(byte) 0xFF, (byte) 0xFF});
+
+        EventLog second = open();
+        assertEquals(4, second.getLastSequence());
+        assertSequences(second.read(0, 100, 0), 1, 4);
+        appendStock(second, 1);
+        List<LogEvent> events = second.read(0, 100, 0);
+        assertSequences(events, 1, 5);
+        assertEquals(1000, events.get(4).getAmount());
+    }
+
+    @Test
+    void recoverStopsBeforeAPartiallyWrittenLastRecord() throws Exception {
+        EventLog first = open();
+        appendStock(first, 5);
+        first.close();
+
+        // Only the first half of the last record reached the file; the rest, checksum included, is still zero
+        corrupt(segment(1), 4, EventLog.RECORD_SIZE / 2, new byte[EventLog.RECORD_SIZE / 2]);
+
+        EventLog second = open();
+        assertEquals(4, second.getLastSequence());
+        appendStock(second, 2);
+        assertSequences(second.read(0, 100, 0), 1, 6);
+    }
+
+    @Test
+    void readsContinueAcrossASegmentRoll() throws Exception {
+        EventLog first = open();
+        int total = SEGMENT_RECORDS + 10;
+        appendStock(first, total);
+        assertTrue(segment(SEGMENT_RECORDS + 1).toFile().isFile(), "no second segment was started");
+
+        long from = SEGMENT_RECORDS - 5;
+        assertSequences(first.read(from, 20, 0), from + 1, from + 15);
+        first.close();
+
+        // After a restart the older segment is only mapped when a reader reaches it
+        EventLog second = open();
+        assertEquals(total, second.getLastSequence());
+        assertSequences(second.read(from, 20, 0), from + 1, from + 15);
+        assertSequences(second.read(total - 3, 20, 0), total - 2, total);
+    }
+
+    @Test
+    void secondLogOnTheSameDirectoryFailsToOpen() throws Exception {
+        EventLog first = open();
+        assertThrows(IllegalStateException.class, this::open);
+
+        first.close();
+        EventLog second = open();
+        appendStock(second, 1);
+        assertEquals(1, second.getLastSequence());
+    }
+
+    private EventLog open() throws IOException {
+        EventLog eventLog = new EventLog(new SimpleMeterRegistry(), true, directory.toString(), 1, 1, false);
+        eventLog.open();
+        opened.add(eventLog);
+        return eventLog;
+    }
+
+    /**
+     * Append {@code count} stock events outside any transaction, each
+     * setting product 42 to 1000 units.
+     */
+    private static void appendStock(EventLog eventLog, int count) {
+        for (int i = 0; i < count; i++) {
+            eventLog.stockSet(42L, 1000);
+        }
+    }
+
+    private static void assertSequences(List<LogEvent> events, long first, long last) {
+        assertEquals(last - first + 1, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(first + i, events.get(i).getSequence());
+        }
+    }
+
+    private Path segment(long firstSequence) {
+        return directory.resolve(String.format("%020d.log", firstSequence));
+    }
+
+    private static void corrupt(Path segment, int recordIndex, int offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), (long) recordIndex * EventLog.RECORD_SIZE + offset);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link OrderStockStressTest} with stock taken by the in-memory ledger and
+ * flushed to {@code products} in batches.
+ */
+@SpringBootTest(properties = {
+        "ecommerce.inventory.mode=ledger",
+        "spring.datasource.url=jdbc:h2:mem:stress_ledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "ecommerce.event-log.enabled=false",
+        "ecommerce.inventory.flush-interval-ms=20"
+})
+class LedgerOrderStockStressTest extends OrderStockStressTest {
+}
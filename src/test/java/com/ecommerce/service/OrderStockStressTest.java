@@ -0,0 +1,190 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.StockShortage;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads place orders at once against products with far less stock
+ * than is asked for. Whatever the interleaving, no more units may be sold
+ * than were in stock, {@code stock_quantity} may never go below zero, and
+ * every rejected order must say which products were short.
+ * <p>
+ * Subclasses run this against each {@code ecommerce.inventory.mode}.
+ */
+abstract class OrderStockStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 25;
+
+    private static final String STOCK_SQL = "SELECT stock_quantity FROM products WHERE id = ?";
+    private static final String MIN_STOCK_SQL = "SELECT MIN(stock_quantity) FROM products WHERE id IN (?, ?)";
+    private static final String SOLD_SQL = "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        Map<Long, Integer> initialStock = new LinkedHashMap<>();
+        Product headphones = createProduct("Stress headphones", 40);
+        Product charger = createProduct("Stress charger", 25);
+        initialStock.put(headphones.getId(), 40);
+        initialStock.put(charger.getId(), 25);
+        User user = userRepository.findAll().get(0);
+
+        Map<Long, AtomicInteger> placedUnits = new ConcurrentHashMap<>();
+        for (Long id : initialStock.keySet()) {
+            placedUnits.put(id, new AtomicInteger());
+        }
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        // Sample the stored stock while orders are being placed, not only at the end
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger lowestStock = new AtomicInteger(Integer.MAX_VALUE);
+        Thread monitor = new Thread(() -> {
+            while (running.get()) {
+                Integer min = jdbcTemplate.queryForObject(MIN_STOCK_SQL, Integer.class,
+                        headphones.getId(), charger.getId());
+                lowestStock.accumulateAndGet(min, Math::min);
+            }
+        });
+        monitor.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    Map<Long, Integer> lines = new LinkedHashMap<>();
+                    lines.put(headphones.getId(), (thread + i) % 3 + 1);
+                    if ((thread + i) % 2 == 0) {
+                        lines.put(charger.getId(), i % 2 + 1);
+                    }
+                    try {
+                        orderService.createOrder(order(user, lines));
+                        placed.incrementAndGet();
+                        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                            placedUnits.get(line.getKey()).addAndGet(line.getValue());
+                        }
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                        checkShortages(e.getShortages(), lines, failures);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        if (inventoryLedger.isEnabled()) {
+            while (inventoryLedger.flush() > 0) {
+                // drain every order line still waiting to be applied
+            }
+        }
+        running.set(false);
+        monitor.join();
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(THREADS * ORDERS_PER_THREAD, placed.get() + rejected.get());
+        assertTrue(placed.get() > 0, "no order was placed");
+        assertTrue(rejected.get() > 0, "demand never exceeded stock");
+        assertTrue(lowestStock.get() >= 0, "stock_quantity went down to " + lowestStock.get());
+        for (Map.Entry<Long, Integer> product : initialStock.entrySet()) {
+            Long id = product.getKey();
+            int sold = placedUnits.get(id).get();
+            assertTrue(sold <= product.getValue(), "sold " + sold + " of " + product.getValue() + " units");
+            assertEquals(product.getValue() - sold,
+                    jdbcTemplate.queryForObject(STOCK_SQL, Integer.class, id).intValue());
+            assertEquals(sold, jdbcTemplate.queryForObject(SOLD_SQL, Integer.class, id).intValue());
+        }
+    }
+
+    /**
+     * A rejection must name at least one product of the order, and only
+     * products that really were short of what the order asked for.
+     */
+    private static void checkShortages(List<StockShortage> shortages, Map<Long, Integer> lines,
+                                       List<String> failures) {
+        if (shortages == null || shortages.isEmpty()) {
+            failures.add("Rejected order " + lines + " without shortages");
+            return;
+        }
+        for (StockShortage shortage : shortages) {
+            Integer requested = lines.get(shortage.getProductId());
+            if (requested == null || shortage.getRequested() != requested
+                    || shortage.getAvailable() >= shortage.getRequested() || shortage.getAvailable() < 0) {
+                failures.add("Unexpected shortage for order " + lines + ": product " + shortage.getProductId()
+                        + " requested " + shortage.getRequested() + " available " + shortage.getAvailable());
+            }
+        }
+    }
+
+    private Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(stock);
+        return productService.createProduct(product);
+    }
+
+    private static Order order(User user, Map<Long, Integer> lines) {
+        Order order = new Order();
+        order.setUser(user);
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Product product = new Product();
+            product.setId(line.getKey());
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(line.getValue());
+            order.getItems().add(item);
+        }
+        return order;
+    }
+}
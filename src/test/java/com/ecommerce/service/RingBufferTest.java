@@ -0,0 +1,144 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwoOfAtLeastTwo() {
+        assertEquals(2, new RingBuffer<Integer>(1).capacity());
+        assertEquals(2, new RingBuffer<Integer>(2).capacity());
+        assertEquals(8, new RingBuffer<Integer>(5).capacity());
+        assertEquals(1024, new RingBuffer<Integer>(1024).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(0));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>((1 << 30) + 1));
+    }
+
+    @Test
+    void emptyBufferPollsNull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void fullBufferRejectsOffers() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(0, buffer.poll().intValue());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    void singleSlotRequestKeepsEveryItem() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(1);
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+        assertFalse(buffer.offer(3));
+        assertEquals(1, buffer.poll().intValue());
+        assertEquals(2, buffer.poll().intValue());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void itemsComeOutInOrderAcrossManyLaps() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int lap = 0; lap < 100; lap++) {
+            // Fill part of the buffer each round so positions keep moving around the slots
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            List<Integer> drained = new ArrayList<>();
+            assertEquals(3, buffer.drainTo(drained, 10));
+            for (Integer item : drained) {
+                assertEquals(expected++, item.intValue());
+            }
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void drainToStopsAtMax() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals(3, buffer.size());
+        assertEquals(0, drained.get(0).intValue());
+        assertEquals(1, drained.get(1).intValue());
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        int producers = 8;
+        int perProducer = 20_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    // Spin while full; the consumer below keeps draining
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        Set<Integer> seen = new HashSet<>();
+        int[] lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer item = buffer.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertTrue(seen.add(item), "duplicate item " + item);
+            // Each producer's items must come out in the order it offered them
+            int producer = item / perProducer;
+            assertTrue(item % perProducer > lastPerProducer[producer], "out of order item " + item);
+            lastPerProducer[producer] = item % perProducer;
+        }
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(producers * perProducer, seen.size());
+        assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.web;
+
+import com.ecommerce.service.RenderedPageCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PageCacheFilterTest {
+
+    private RenderedPageCache pageCache;
+    private PageCacheFilter filter;
+
+    /** What the next render returns: an HTTP status, and a body if the status is 200. */
+    private int nextStatus;
+    private String nextBody;
+    private int renders;
+
+    @BeforeEach
+    void setUp() {
+        pageCache = new RenderedPageCache(100, 60, 600);
+        filter = new PageCacheFilter(new String[]{"/products"});
+        ReflectionTestUtils.setField(filter, "pageCache", pageCache);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @Test
+    void missIsRenderedAndCached() throws Exception {
+        renderNext(HttpServletResponse.SC_OK, "<p>v1</p>");
+        MockHttpServletResponse miss = get();
+        assertEquals("MISS", miss.getHeader("X-Page-Cache"));
+        assertEquals("<p>v1</p>", miss.getContentAsString());
+
+        MockHttpServletResponse hit = get();
+        assertEquals("HIT", hit.getHeader("X-Page-Cache"));
+        assertEquals("<p>v1</p>", hit.getContentAsString());
+        assertEquals(1, renders);
+    }
+
+    @Test
+    void successfulRevalidationReplacesTheStalePage() throws Exception {
+        renderNext(HttpServletResponse.SC_OK, "<p>v1</p>");
+        get();
+        pageCache.invalidateAll();
+
+        renderNext(HttpServletResponse.SC_OK, "<p>v2</p>");
+        MockHttpServletResponse stale = get();
+        assertEquals("STALE", stale.getHeader("X-Page-Cache"));
+        assertEquals("<p>v1</p>", stale.getContentAsString());
+
+        MockHttpServletResponse hit = get();
+        assertEquals("HIT", hit.getHeader("X-Page-Cache"));
+        assertEquals("<p>v2</p>", hit.getContentAsString());
+        assertEquals(2, renders);
+    }
+
+    @Test
+    void errorDuringRevalidationKeepsTheStalePageAndAllowsARetry() throws Exception {
+        renderNext(HttpServletResponse.SC_OK, "<p>v1</p>");
+        get();
+        pageCache.invalidateAll();
+
+        renderNext(HttpServletResponse.SC_NOT_FOUND, null);
+        MockHttpServletResponse stale = get();
+        assertEquals(HttpServletResponse.SC_OK, stale.getStatus());
+        assertEquals("<p>v1</p>", stale.getContentAsString());
+        assertEquals(2, renders);
+
+        // The error was not cached, and the next stale hit tries again
+        renderNext(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, null);
+        assertEquals("<p>v1</p>", get().getContentAsString());
+        assertEquals(3, renders);
+
+        renderNext(HttpServletResponse.SC_OK, "<p>v2</p>");
+        assertEquals("STALE", get().getHeader("X-Page-Cache"));
+        assertEquals(4, renders);
+        MockHttpServletResponse hit = get();
+        assertEquals("HIT", hit.getHeader("X-Page-Cache"));
+        assertEquals("<p>v2</p>", hit.getContentAsString());
+    }
+
+    @Test
+    void nonHtmlRevalidationIsNotCached() throws Exception {
+        renderNext(HttpServletResponse.SC_OK, "<p>v1</p>");
+        get();
+        pageCache.invalidateAll();
+
+        renderNext(HttpServletResponse.SC_OK, null);
+        assertEquals("<p>v1</p>", get().getContentAsString());
+        renderNext(HttpServletResponse.SC_OK, "<p>v2</p>");
+        get();
+        assertEquals("<p>v2</p>", get().getContentAsString());
+        assertEquals(3, renders);
+    }
+
+    private void renderNext(int status, String body) {
+        nextStatus = status;
+        nextBody = body;
+    }
+
+    private MockHttpServletResponse get() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders++;
+                if (nextStatus != HttpServletResponse.SC_OK) {
+                    resp.sendError(nextStatus);
+                } else if (nextBody == null) {
+                    resp.setContentType("application/json");
+                    resp.getWriter().write("{}");
+                } else {
+                    resp.setContentType("text/html;charset=UTF-8");
+                    resp.getWriter().write(nextBody);
+                }
+            }
+        }));
+        return response;
+    }
+}